@@ -0,0 +1,125 @@
+/*
+ *
+ * GeometryBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.benchmark;
+
+import it.zerono.mods.zerocore.lib.block.BlockFacings;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.cuboid.CuboidValidationPlan;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The geometry helpers used while assembling and validating a multiblock
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    @Setup
+    public void setup() {
+
+        final Random random = new Random(42);
+
+        this._positions = new BlockPos[POSITIONS];
+
+        for (int idx = 0; idx < POSITIONS; ++idx) {
+            this._positions[idx] = new BlockPos(random.nextInt(64) - 32, random.nextInt(256), random.nextInt(64) - 32);
+        }
+
+        this._neighbors = new NeighboringPositions();
+        this._box = new CuboidBoundingBox(-16, 64, -16, 16, 128, 16);
+        this._plan = CuboidValidationPlan.of(SIDE, SIDE, SIDE);
+        this._next = 0;
+    }
+
+    @Benchmark
+    public void neighborsHashes(final Blackhole blackhole) {
+
+        this._neighbors.setTo(this.nextPosition());
+
+        for (int idx = 0; idx < this._neighbors.size(); ++idx) {
+            blackhole.consume(this._neighbors.getHash(idx));
+        }
+    }
+
+    @Benchmark
+    public boolean facingsFromAndIsSet() {
+
+        final BlockPos position = this.nextPosition();
+        final BlockFacings facings = BlockFacings.from(0 == (position.getY() & 1), 0 == (position.getY() & 2),
+                0 == (position.getZ() & 1), 0 == (position.getZ() & 2), 0 == (position.getX() & 1), 0 == (position.getX() & 2));
+
+        return facings.isSet(Direction.UP) || facings.isSet(Direction.WEST);
+    }
+
+    @Benchmark
+    public boolean boundingBoxContains() {
+
+        final BlockPos position = this.nextPosition();
+
+        return this._box.contains(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Benchmark
+    public CuboidBoundingBox boundingBoxAdd() {
+
+        final CuboidBoundingBox box = new CuboidBoundingBox();
+
+        for (int idx = 0; idx < 16; ++idx) {
+            box.add(this.nextPosition());
+        }
+
+        return box;
+    }
+
+    @Benchmark
+    public int validationPlanClassify() {
+
+        final BlockPos position = this.nextPosition();
+
+        return this._plan.classify(position.getX() & (SIDE - 1), position.getY() & (SIDE - 1), position.getZ() & (SIDE - 1));
+    }
+
+    //region internals
+
+    private BlockPos nextPosition() {
+        return this._positions[(this._next++) & (POSITIONS - 1)];
+    }
+
+    private static final int POSITIONS = 1024;
+    private static final int SIDE = 16;
+
+    private BlockPos[] _positions;
+    private NeighboringPositions _neighbors;
+    private CuboidBoundingBox _box;
+    private CuboidValidationPlan _plan;
+    private int _next;
+
+    //endregion
+}
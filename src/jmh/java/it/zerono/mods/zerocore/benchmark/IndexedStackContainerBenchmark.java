@@ -0,0 +1,78 @@
+/*
+ *
+ * IndexedStackContainerBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.benchmark;
+
+import it.zerono.mods.zerocore.lib.data.stack.IndexedStackContainer;
+import it.zerono.mods.zerocore.lib.data.stack.OperationMode;
+import it.zerono.mods.zerocore.lib.data.stack.StackAdapters;
+import it.zerono.mods.zerocore.lib.energy.EnergyStack;
+import it.zerono.mods.zerocore.lib.energy.EnergySystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert, extract and update checks on an {@link IndexedStackContainer} with two energy buffers
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class IndexedStackContainerBenchmark {
+
+    public enum Buffer {
+        Input,
+        Output
+    }
+
+    @Setup
+    public void setup() {
+
+        this._container = new IndexedStackContainer<>(CAPACITY, StackAdapters.ENERGYSTACK, Buffer.Input, Buffer.Output);
+        this._container.insert(Buffer.Input, EnergySystem.ForgeEnergy, CAPACITY / 2, OperationMode.Execute);
+        this._container.insert(Buffer.Output, EnergySystem.ForgeEnergy, CAPACITY / 2, OperationMode.Execute);
+    }
+
+    @Benchmark
+    public int transfer() {
+
+        this._container.extract(Buffer.Input, 100, OperationMode.Execute);
+        this._container.insert(Buffer.Input, 100, OperationMode.Execute);
+        return this._container.getContentAmount(Buffer.Input);
+    }
+
+    @Benchmark
+    public boolean shouldUpdate() {
+
+        this._container.insert(Buffer.Output, 1, OperationMode.Execute);
+        this._container.extract(Buffer.Output, 1, OperationMode.Execute);
+        return this._container.shouldUpdate();
+    }
+
+    //region internals
+
+    private static final int CAPACITY = 1_000_000;
+
+    private IndexedStackContainer<Buffer, EnergySystem, EnergyStack> _container;
+
+    //endregion
+}
@@ -0,0 +1,171 @@
+/*
+ *
+ * PartStorageBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.benchmark;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.storage.HashPartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.storage.PartStorage;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and updates on the parts storages of a cube-shaped machine
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartStorageBenchmark {
+
+    @Param({"PartStorage", "HashPartStorage"})
+    public String storageType;
+
+    @Param({"1000", "100000"})
+    public int partsCount;
+
+    @Setup
+    public void setup() {
+
+        final int side = (int)Math.ceil(Math.cbrt(this.partsCount));
+        final Random random = new Random(42);
+
+        this._storage = this.createStorage();
+        this._parts = new IMultiblockPart[this.partsCount];
+
+        for (int idx = 0; idx < this.partsCount; ++idx) {
+
+            final IMultiblockPart<StubController> part =
+                    MultiblockStubs.part(new BlockPos(idx % side, (idx / side) % side, idx / (side * side)));
+
+            this._parts[idx] = part;
+            this._storage.addOrReplace(part);
+        }
+
+        // half of the lookups hit a part, the other half fall just outside the machine
+
+        this._lookups = new BlockPos[LOOKUPS];
+
+        for (int idx = 0; idx < LOOKUPS; ++idx) {
+            this._lookups[idx] = 0 == (idx & 1) ? this._parts[random.nextInt(this.partsCount)].getWorldPosition() :
+                    new BlockPos(side + random.nextInt(side), random.nextInt(side), random.nextInt(side));
+        }
+
+        this._neighbors = new NeighboringPositions();
+        this._foundParts = new ObjectArrayList<>(this._neighbors.size());
+        this._next = 0;
+    }
+
+    @Benchmark
+    public IMultiblockPart<StubController> getByHash() {
+        return this._storage.get(this.nextLookup().asLong());
+    }
+
+    @Benchmark
+    public boolean containsNeighbors() {
+
+        this._neighbors.setTo(this.nextLookup());
+        return this._storage.contains(this._neighbors);
+    }
+
+    @Benchmark
+    public int getNeighbors() {
+
+        this._neighbors.setTo(this.nextLookup());
+        this._foundParts.clear();
+        this._storage.get(this._neighbors, this._foundParts);
+        return this._foundParts.size();
+    }
+
+    @Benchmark
+    public int removeAndAddPart() {
+
+        final IMultiblockPart<StubController> part = this._parts[(this._next++ & Integer.MAX_VALUE) % this.partsCount];
+
+        this._storage.remove(part);
+        this._storage.addOrReplace(part);
+        return this._storage.size();
+    }
+
+    @Benchmark
+    public IMultiblockPart<StubController> getFirst() {
+        return this._storage.getFirst();
+    }
+
+    @Benchmark
+    public CuboidBoundingBox boundingBox() {
+        return this._storage.boundingBox();
+    }
+
+    /**
+     * Copy all the parts in an empty storage of the same type, as a controller does when it assimilate another one
+     */
+    @Benchmark
+    public int addAll() {
+
+        final IPartStorage<StubController> storage = this.createStorage();
+
+        storage.addAll(this._storage);
+        return storage.size();
+    }
+
+    @Benchmark
+    public long iterate() {
+
+        long hash = 0;
+
+        for (final IMultiblockPart<StubController> part : this._storage) {
+            hash ^= part.getWorldPositionHash();
+        }
+
+        return hash;
+    }
+
+    //region internals
+
+    private IPartStorage<StubController> createStorage() {
+        return "HashPartStorage".equals(this.storageType) ? new HashPartStorage<>(this.partsCount) : new PartStorage<>();
+    }
+
+    private BlockPos nextLookup() {
+        return this._lookups[(this._next++) & (LOOKUPS - 1)];
+    }
+
+    private static final int LOOKUPS = 1024;
+
+    private IPartStorage<StubController> _storage;
+    private IMultiblockPart<StubController>[] _parts;
+    private BlockPos[] _lookups;
+    private NeighboringPositions _neighbors;
+    private List<IMultiblockPart<StubController>> _foundParts;
+    private int _next;
+
+    //endregion
+}
@@ -0,0 +1,152 @@
+/*
+ *
+ * PartsBoundsTrackerBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.benchmark;
+
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.PartsBoundsTracker;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.storage.PartStorage;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-block edits on a big cube-shaped machine: a part is broken and placed again and then the bounding box and the
+ * reference part of the machine are looked up, with a {@link PartsBoundsTracker} and with a scan of all the parts.
+ *
+ * Run with "-prof gc" to see the memory used by the tracker: every part is also kept in the tracker own ordered set,
+ * and buildTracker allocates (and retains) all of it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartsBoundsTrackerBenchmark {
+
+    @Param({"100000"})
+    public int partsCount;
+
+    @Setup
+    public void setup() {
+
+        final int side = (int)Math.ceil(Math.cbrt(this.partsCount));
+        final Random random = new Random(42);
+
+        this._storage = new PartStorage<>();
+        this._tracker = new PartsBoundsTracker<>();
+        this._parts = new IMultiblockPart[this.partsCount];
+
+        for (int idx = 0; idx < this.partsCount; ++idx) {
+
+            final IMultiblockPart<StubController> part =
+                    MultiblockStubs.part(new BlockPos(idx % side, (idx / side) % side, idx / (side * side)));
+
+            this._parts[idx] = part;
+            this._storage.addOrReplace(part);
+            this._tracker.add(part);
+        }
+
+        // the edits hit random parts, the reference one included
+
+        this._edits = new IMultiblockPart[EDITS];
+        this._edits[0] = this._parts[0];
+
+        for (int idx = 1; idx < EDITS; ++idx) {
+            this._edits[idx] = this._parts[random.nextInt(this.partsCount)];
+        }
+
+        this._next = 0;
+    }
+
+    @Benchmark
+    public void trackedEdit(final Blackhole blackhole) {
+
+        final IMultiblockPart<StubController> part = this.nextEdit();
+
+        this._tracker.remove(part);
+        this._tracker.add(part);
+
+        blackhole.consume(this._tracker.boundingBox());
+        blackhole.consume(this._tracker.getFirstValidPart());
+    }
+
+    /**
+     * The same edit, with the bounding box and the reference part computed visiting all the parts, as the
+     * controllers did before the tracker was introduced
+     */
+    @Benchmark
+    public void scannedEdit(final Blackhole blackhole) {
+
+        final IMultiblockPart<StubController> part = this.nextEdit();
+        IMultiblockPart<StubController> first = null;
+
+        this._storage.remove(part);
+        this._storage.addOrReplace(part);
+
+        blackhole.consume(this._storage.boundingBox());
+
+        for (final IMultiblockPart<StubController> candidate : this._storage) {
+            if (!candidate.isPartInvalid() &&
+                    (null == first || candidate.getWorldPosition().compareTo(first.getWorldPosition()) < 0)) {
+                first = candidate;
+            }
+        }
+
+        blackhole.consume(first);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public PartsBoundsTracker<StubController> buildTracker() {
+
+        final PartsBoundsTracker<StubController> tracker = new PartsBoundsTracker<>();
+
+        for (final IMultiblockPart<StubController> part : this._parts) {
+            tracker.add(part);
+        }
+
+        return tracker;
+    }
+
+    //region internals
+
+    private IMultiblockPart<StubController> nextEdit() {
+        return this._edits[(this._next++) & (EDITS - 1)];
+    }
+
+    private static final int EDITS = 1024;
+
+    private IPartStorage<StubController> _storage;
+    private PartsBoundsTracker<StubController> _tracker;
+    private IMultiblockPart<StubController>[] _parts;
+    private IMultiblockPart<StubController>[] _edits;
+    private int _next;
+
+    //endregion
+}
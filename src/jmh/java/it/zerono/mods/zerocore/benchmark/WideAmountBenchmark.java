@@ -0,0 +1,85 @@
+/*
+ *
+ * WideAmountBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.benchmark;
+
+import it.zerono.mods.zerocore.lib.data.WideAmount;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of {@link WideAmount}, as used by the energy systems every tick
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideAmountBenchmark {
+
+    @Setup(Level.Invocation)
+    public void setup() {
+
+        this._amount = WideAmount.from(1_000_000L, (short)250);
+        this._other = WideAmount.from(12_345L, (short)5000);
+    }
+
+    @Benchmark
+    public WideAmount addWide() {
+        return this._amount.add(this._other);
+    }
+
+    @Benchmark
+    public WideAmount addDouble() {
+        return this._amount.add(1234.5678);
+    }
+
+    @Benchmark
+    public WideAmount subtractWide() {
+        return this._amount.subtract(this._other);
+    }
+
+    @Benchmark
+    public WideAmount multiplyDouble() {
+        return this._amount.multiply(0.75);
+    }
+
+    @Benchmark
+    public WideAmount divideWide() {
+        return this._amount.divide(this._other);
+    }
+
+    @Benchmark
+    public boolean compare() {
+        return this._amount.greaterThan(this._other);
+    }
+
+    @Benchmark
+    public WideAmount copy() {
+        return this._amount.copy();
+    }
+
+    //region internals
+
+    private WideAmount _amount;
+    private WideAmount _other;
+
+    //endregion
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ * ControllersLookupBenchmark.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.registry;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lookup of the controllers next to an orphaned part, as the world registry does on a chunk load, with the
+ * positions index of the registry and with the scan of all the controllers it replaced
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllersLookupBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int controllersCount;
+
+    @Setup
+    public void setup() {
+
+        final Random random = new Random(42);
+
+        this._registry = new MultiblockWorldRegistry<>(null);
+        this._controllers = new ObjectArrayList<>(this.controllersCount);
+
+        // 3x3x3 machines on a grid, with 5 empty blocks between them
+
+        for (int idx = 0; idx < this.controllersCount; ++idx) {
+
+            final StubController controller = MultiblockStubs.controller("controller #" + idx);
+            final int originX = (idx % GRID_SIZE) * MACHINES_DISTANCE;
+            final int originZ = (idx / GRID_SIZE) * MACHINES_DISTANCE;
+
+            for (int x = 0; x < 3; ++x) {
+                for (int y = 0; y < 3; ++y) {
+                    for (int z = 0; z < 3; ++z) {
+
+                        final IMultiblockPart<StubController> part = MultiblockStubs.part(originX + x, 64 + y, originZ + z);
+
+                        controller.attachPart(part);
+                        this._registry.onPartAttached(controller, part);
+                    }
+                }
+            }
+
+            this._controllers.add(controller);
+        }
+
+        // half of the orphans touch a machine, the other half are placed between the machines
+
+        this._orphans = new IMultiblockPart[LOOKUPS];
+
+        for (int idx = 0; idx < LOOKUPS; ++idx) {
+
+            final int machine = random.nextInt(this.controllersCount);
+            final int originX = (machine % GRID_SIZE) * MACHINES_DISTANCE;
+            final int originZ = (machine / GRID_SIZE) * MACHINES_DISTANCE;
+
+            this._orphans[idx] = 0 == (idx & 1) ?
+                    MultiblockStubs.part(originX - 1, 64 + random.nextInt(3), originZ + random.nextInt(3)) :
+                    MultiblockStubs.part(originX + 5, 64 + random.nextInt(3), originZ + random.nextInt(3));
+        }
+
+        this._neighbors = new NeighboringPositions();
+        this._next = 0;
+    }
+
+    @Benchmark
+    public Set<StubController> indexed() {
+        return this._registry.findControllersFor(this.nextOrphan());
+    }
+
+    /**
+     * The lookup of the registry before the positions index was introduced: every controller in the world is asked
+     * if it own a part next to the orphan
+     */
+    @Benchmark
+    public Set<StubController> scanAllControllers() {
+
+        final IMultiblockPart<StubController> orphan = this.nextOrphan();
+        final Class<StubController> targetControllerType = orphan.getControllerType();
+        final Set<StubController> controllers = new ReferenceArraySet<>(6);
+
+        this._neighbors.setTo(orphan.getWorldPosition());
+
+        for (final StubController controller : this._controllers) {
+
+            if (targetControllerType.equals(controller.getClass()) &&
+                    controller.isPartCompatible(orphan) &&
+                    controller.containsPartsAt(this._neighbors)) {
+                controllers.add(controller);
+            }
+        }
+
+        return controllers;
+    }
+
+    //region internals
+
+    private IMultiblockPart<StubController> nextOrphan() {
+        return this._orphans[(this._next++) & (LOOKUPS - 1)];
+    }
+
+    private static final int LOOKUPS = 1024;
+    private static final int GRID_SIZE = 64;
+    private static final int MACHINES_DISTANCE = 8;
+
+    private MultiblockWorldRegistry<StubController> _registry;
+    private ObjectList<StubController> _controllers;
+    private IMultiblockPart<StubController>[] _orphans;
+    private NeighboringPositions _neighbors;
+    private int _next;
+
+    //endregion
+}
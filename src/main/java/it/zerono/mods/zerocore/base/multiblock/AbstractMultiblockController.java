@@ -18,10 +18,16 @@
 
 package it.zerono.mods.zerocore.base.multiblock;
 
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
 import it.zerono.mods.zerocore.lib.multiblock.cuboid.AbstractCuboidMultiblockController;
+import it.zerono.mods.zerocore.lib.multiblock.cuboid.CuboidValidationPlan;
 import it.zerono.mods.zerocore.lib.multiblock.variant.IMultiblockDimensionVariant;
+import net.minecraft.block.BlockState;
 import net.minecraft.world.World;
 
+import javax.annotation.Nullable;
+import java.util.function.Predicate;
+
 @SuppressWarnings({"WeakerAccess"})
 public abstract class AbstractMultiblockController<Controller extends AbstractCuboidMultiblockController<Controller>,
         V extends IMultiblockDimensionVariant>
@@ -114,6 +120,29 @@ public abstract class AbstractMultiblockController<Controller extends AbstractCu
         return this.getVariant().getMaximumYSize();
     }
 
+    /**
+     * Get the validation plan for a machine with the given bounding box from the variant of the machine
+     *
+     * @param bb the bounding box of the machine
+     * @return the validation plan
+     */
+    @Override
+    protected CuboidValidationPlan getValidationPlan(final CuboidBoundingBox bb) {
+        return this.getVariant().getValidationPlan(bb.getLengthX(), bb.getLengthY(), bb.getLengthZ());
+    }
+
+    /**
+     * Get the predicate used to check the blocks found in the given class of positions from the variant of the machine
+     *
+     * @param positionClass the class of positions
+     * @return the predicate or null to use the isBlockGoodFor*() method for the given class of positions
+     */
+    @Nullable
+    @Override
+    protected Predicate<BlockState> getValidBlockStates(final CuboidValidationPlan.PositionClass positionClass) {
+        return this.getVariant().getValidBlockStates(positionClass);
+    }
+
     /**
      * Client-side update loop. Generally, this shouldn't do anything, but if you want
      * to do some interpolation or something, do it here.
@@ -64,6 +64,18 @@ public abstract class AbstractMultiblockEntity<Controller extends AbstractCuboid
         super.markForRenderUpdate();
     }
 
+    @Override
+    public void markModelForRenderUpdate() {
+
+        this.callOnLogicalClient(() -> {
+
+            this._clientModelData = null;
+            this.requestModelDataUpdate();
+        });
+
+        super.markModelForRenderUpdate();
+    }
+
     //endregion
     //region TileEntity
 
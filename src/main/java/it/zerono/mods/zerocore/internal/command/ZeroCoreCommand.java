@@ -19,12 +19,25 @@
 package it.zerono.mods.zerocore.internal.command;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.tree.LiteralCommandNode;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
 import it.zerono.mods.zerocore.ZeroCore;
 import it.zerono.mods.zerocore.internal.network.Network;
+import it.zerono.mods.zerocore.lib.multiblock.AbstractMultiblockController;
+import it.zerono.mods.zerocore.lib.multiblock.ControllerProfile;
+import it.zerono.mods.zerocore.lib.multiblock.registry.MultiblockRegistry;
 import net.minecraft.command.CommandSource;
 import net.minecraft.command.Commands;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraft.world.server.ServerWorld;
+
+import java.util.Comparator;
+import java.util.List;
 
 public final class ZeroCoreCommand {
 
@@ -43,6 +56,16 @@ public final class ZeroCoreCommand {
                 .then(Commands.literal("recipe")
                         .then(Commands.literal("clearCache").executes(ZeroCoreCommand::recipeClearCache))
                 )
+                .then(Commands.literal("multiblock")
+                        .then(Commands.literal("stats")
+                                .executes(context -> multiblockStats(context, 10))
+                                .then(Commands.literal("top")
+                                        .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                                                .executes(context -> multiblockStats(context, IntegerArgumentType.getInteger(context, "count")))
+                                        )
+                                )
+                        )
+                )
         );
 
         dispatcher.register(Commands.literal("zc").redirect(mainCmd));
@@ -71,5 +94,71 @@ public final class ZeroCoreCommand {
         return 0;
     }
 
+    private static int multiblockStats(final CommandContext<CommandSource> context, final int count) {
+
+        final CommandSource source = context.getSource();
+        final List<AbstractMultiblockController<?>> controllers = new ObjectArrayList<>();
+        final Reference2LongMap<AbstractMultiblockController<?>> sortKeys = new Reference2LongOpenHashMap<>();
+
+        for (final ServerWorld world : source.getServer().getAllLevels()) {
+            for (final Object controller : MultiblockRegistry.INSTANCE.getControllers(world)) {
+                if (controller instanceof AbstractMultiblockController) {
+
+                    final AbstractMultiblockController<?> multiblock = (AbstractMultiblockController<?>)controller;
+
+                    // compute the percentile once, not at every comparison
+                    controllers.add(multiblock);
+                    sortKeys.put(multiblock, multiblock.getProfile().getPercentile(ControllerProfile.Section.Update, 99));
+                }
+            }
+        }
+
+        if (controllers.isEmpty()) {
+
+            source.sendSuccess(new StringTextComponent("No multiblock controllers found"), false);
+            return 0;
+        }
+
+        // worst offenders first
+        controllers.sort(Comparator.comparingLong(sortKeys::getLong).reversed());
+
+        final int listed = Math.min(count, controllers.size());
+
+        //noinspection AutoBoxing
+        source.sendSuccess(new StringTextComponent(String.format("Top %d of %d multiblock controllers by update cost (p50 / p99):",
+                listed, controllers.size())), false);
+
+        for (int idx = 0; idx < listed; ++idx) {
+            source.sendSuccess(new StringTextComponent(describeControllerStats(controllers.get(idx))), false);
+        }
+
+        return listed;
+    }
+
+    private static String describeControllerStats(final AbstractMultiblockController<?> controller) {
+
+        final ControllerProfile profile = controller.getProfile();
+        final String state = controller.isAssembled() ? "assembled" : controller.isPaused() ? "paused" : "disassembled";
+
+        //noinspection AutoBoxing
+        return String.format("%s [%s] %d parts, %s - update %s / %s, validation %s / %s, disconnections %s / %s",
+                controller.getWorld().dimension().location(),
+                controller.getReferenceCoord().map(BlockPos::toShortString).orElse("?"),
+                controller.getPartsCount(), state,
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Update, 50)),
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Update, 99)),
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Validation, 50)),
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Validation, 99)),
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Disconnections, 50)),
+                formatNanoTime(profile.getPercentile(ControllerProfile.Section.Disconnections, 99)));
+    }
+
+    private static String formatNanoTime(final long nanoseconds) {
+
+        //noinspection AutoBoxing
+        return nanoseconds < 1_000_000 ? String.format("%.1fus", nanoseconds / 1_000.0) :
+                String.format("%.2fms", nanoseconds / 1_000_000.0);
+    }
+
     //endregion
 }
@@ -31,10 +31,13 @@ public class ContainerDataMessage
 
     /**
      * Construct the local message to be sent over the network.
+     *
+     * @param containerDataWriter the writer of the container data changes, as returned by {@link ModContainer#getContainerDataWriter()}.
+     *                            The same message could be encoded multiple times, once for every player it is sent to
      */
-    public ContainerDataMessage(final ModContainer container) {
+    public ContainerDataMessage(final NonNullConsumer<PacketBuffer> containerDataWriter) {
 
-        this._container = container;
+        this._writer = containerDataWriter;
         this._buffer = null;
     }
 
@@ -47,7 +50,7 @@ public class ContainerDataMessage
     public ContainerDataMessage(final PacketBuffer buffer) {
 
         super(buffer);
-        this._container = null;
+        this._writer = null;
         this._buffer = buffer;
     }
 
@@ -61,11 +64,7 @@ public class ContainerDataMessage
     @Override
     public void encodeTo(final PacketBuffer buffer) {
 
-        final NonNullConsumer<PacketBuffer> writer = Objects.requireNonNull(this._container).getContainerDataWriter();
-
-        if (null != writer) {
-            writer.accept(buffer);
-        }
+        Objects.requireNonNull(this._writer).accept(buffer);
     }
 
     /**
@@ -91,7 +90,7 @@ public class ContainerDataMessage
     //endregion
     //region internals
 
-    final ModContainer _container;
+    final NonNullConsumer<PacketBuffer> _writer;
     final PacketBuffer _buffer;
 
     //endregion
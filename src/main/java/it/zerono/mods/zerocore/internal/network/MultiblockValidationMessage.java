@@ -0,0 +1,276 @@
+/*
+ *
+ * MultiblockValidationMessage.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.internal.network;
+
+import it.zerono.mods.zerocore.internal.Log;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.AbstractMultiblockController;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.network.AbstractModTileMessage;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+/**
+ * Check if the structure of a multiblock machine on the client match the one on the server.
+ *
+ * The server send the structure digest, the number of parts, the bounding box and the assembly state of the machine
+ * to the client (Request).
+ * If they still don't match the client structure once the client processed its own changes to the machine, the
+ * client ask for the full list of the parts (Mismatch) and the server send it back (Response).
+ *
+ * Mismatch messages from players that are not tracking the chunk of the machine are ignored
+ */
+public class MultiblockValidationMessage
+        extends AbstractModTileMessage {
+
+    /**
+     * The maximum number of parts positions sent in a Response. A Response for a bigger machine would get close to
+     * the size limit of a packet: no Response is sent for such machines
+     */
+    public static final int MAX_RESPONSE_POSITIONS = 64 * 1024;
+
+    /**
+     * Create a new validation request for the provided controller. The assembly state of the controller is sent too
+     *
+     * @param controller the controller
+     * @param referencePosition the position of the reference part of the controller
+     * @return the new message
+     */
+    public static MultiblockValidationMessage request(final AbstractMultiblockController<?> controller,
+                                                      final BlockPos referencePosition) {
+        return new MultiblockValidationMessage(Stage.Request, referencePosition, controller.getStructureDigest(),
+                controller.getPartsCount(), controller.getBoundingBox(), controller.isAssembled(), EMPTY_POSITIONS);
+    }
+
+    /**
+     * Create a new message to ask the server for the positions of the parts of a machine
+     *
+     * @param serverReferencePosition the position of the reference part of the machine, as sent by the server
+     * @return the new message
+     */
+    public static MultiblockValidationMessage mismatch(final BlockPos serverReferencePosition) {
+        return new MultiblockValidationMessage(Stage.Mismatch, serverReferencePosition, 0, 0, CuboidBoundingBox.EMPTY,
+                false, EMPTY_POSITIONS);
+    }
+
+    public MultiblockValidationMessage(final PacketBuffer buffer) {
+
+        super(buffer);
+        this._stage = buffer.readEnum(Stage.class);
+
+        switch (this._stage) {
+
+            case Request:
+
+                this._digest = buffer.readLong();
+                this._partsCount = buffer.readVarInt();
+                this._boundingBox = buffer.readBoolean() ?
+                        new CuboidBoundingBox(buffer.readBlockPos(), buffer.readBlockPos()) : CuboidBoundingBox.EMPTY;
+                this._assembled = buffer.readBoolean();
+                this._partsPositions = EMPTY_POSITIONS;
+                break;
+
+            case Response:
+
+                this._digest = 0;
+                this._partsCount = 0;
+                this._boundingBox = CuboidBoundingBox.EMPTY;
+                this._assembled = false;
+                this._partsPositions = buffer.readLongArray(null, MAX_RESPONSE_POSITIONS);
+                break;
+
+            default:
+
+                this._digest = 0;
+                this._partsCount = 0;
+                this._boundingBox = CuboidBoundingBox.EMPTY;
+                this._assembled = false;
+                this._partsPositions = EMPTY_POSITIONS;
+                break;
+        }
+    }
+
+    //region AbstractModTileMessage
+
+    @Override
+    public void encodeTo(final PacketBuffer buffer) {
+
+        super.encodeTo(buffer);
+        buffer.writeEnum(this._stage);
+
+        switch (this._stage) {
+
+            case Request:
+
+                buffer.writeLong(this._digest);
+                buffer.writeVarInt(this._partsCount);
+
+                if (this._boundingBox.isEmpty()) {
+
+                    buffer.writeBoolean(false);
+
+                } else {
+
+                    buffer.writeBoolean(true);
+                    buffer.writeBlockPos(this._boundingBox.getMin());
+                    buffer.writeBlockPos(this._boundingBox.getMax());
+                }
+
+                buffer.writeBoolean(this._assembled);
+                break;
+
+            case Response:
+
+                buffer.writeLongArray(this._partsPositions);
+                break;
+        }
+    }
+
+    @Override
+    public void processMessage(final NetworkEvent.Context messageContext) {
+
+        this._context = messageContext;
+
+        final ServerPlayerEntity player = messageContext.getSender();
+
+        if (null != player && !isTrackedBy(player, this.getTileEntityPosition())) {
+
+            Log.LOGGER.debug(Log.NETWORK, "Ignoring a multiblock validation message from {}: the machine is not tracked by the player",
+                    player.getScoreboardName());
+            return;
+        }
+
+        super.processMessage(messageContext);
+    }
+
+    /**
+     * Process the data received from the network.
+     *
+     * @param tileEntity the TileEntity object on the other side of this message exchange
+     */
+    @Override
+    protected void processTileEntityMessage(final LogicalSide sourceSide, final TileEntity tileEntity) {
+
+        if (this._stage.isSentByServer() != sourceSide.isServer()) {
+
+            Log.LOGGER.error(Log.NETWORK, "Unexpected multiblock validation message received from the {} side: skipping", sourceSide);
+            return;
+        }
+
+        if (!(tileEntity instanceof IMultiblockPart)) {
+
+            Log.LOGGER.error(Log.NETWORK, "No multiblock part found while processing a multiblock validation message: skipping");
+            return;
+        }
+
+        // if the machine is not there (anymore) there is nothing to validate
+
+        ((IMultiblockPart<?>)tileEntity).getMultiblockController()
+                .filter(controller -> controller instanceof AbstractMultiblockController)
+                .ifPresent(controller -> this.process((AbstractMultiblockController<?>)controller));
+    }
+
+    //endregion
+    //region internals
+
+    private enum Stage {
+
+        Request(true),
+        Mismatch(false),
+        Response(true);
+
+        Stage(final boolean sentByServer) {
+            this._sentByServer = sentByServer;
+        }
+
+        boolean isSentByServer() {
+            return this._sentByServer;
+        }
+
+        private final boolean _sentByServer;
+    }
+
+    private MultiblockValidationMessage(final Stage stage, final BlockPos referencePosition, final long digest,
+                                        final int partsCount, final CuboidBoundingBox boundingBox,
+                                        final boolean assembled, final long[] partsPositions) {
+
+        super(referencePosition);
+        this._stage = stage;
+        this._digest = digest;
+        this._partsCount = partsCount;
+        this._boundingBox = boundingBox;
+        this._assembled = assembled;
+        this._partsPositions = partsPositions;
+    }
+
+    private void process(final AbstractMultiblockController<?> controller) {
+
+        switch (this._stage) {
+
+            case Request:
+
+                controller.processClientValidationRequest(this.getTileEntityPosition(), this._digest, this._partsCount,
+                        this._boundingBox, this._assembled);
+                break;
+
+            case Mismatch: {
+
+                final ServerPlayerEntity player = this._context.getSender();
+                final long[] positions = null != player ? controller.getClientValidationResponse(player) : null;
+
+                if (null != positions) {
+                    Network.HANDLER.sendReply(new MultiblockValidationMessage(Stage.Response, this.getTileEntityPosition(),
+                            0, 0, CuboidBoundingBox.EMPTY, false, positions), this._context);
+                }
+
+                break;
+            }
+
+            case Response:
+
+                controller.processClientValidationResponse(this._partsPositions);
+                break;
+        }
+    }
+
+    /**
+     * Check if the given position is in a chunk the player is tracking, without loading the chunk
+     */
+    private static boolean isTrackedBy(final ServerPlayerEntity player, final BlockPos position) {
+        return player.getLevel().getChunkSource().chunkMap.getPlayers(new ChunkPos(position), false)
+                .anyMatch(trackingPlayer -> trackingPlayer == player);
+    }
+
+    private static final long[] EMPTY_POSITIONS = new long[0];
+
+    private final Stage _stage;
+    private final long _digest;
+    private final int _partsCount;
+    private final CuboidBoundingBox _boundingBox;
+    private final boolean _assembled;
+    private final long[] _partsPositions;
+    private NetworkEvent.Context _context;
+
+    //endregion
+}
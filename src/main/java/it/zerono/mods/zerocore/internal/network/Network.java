@@ -21,12 +21,16 @@ package it.zerono.mods.zerocore.internal.network;
 import it.zerono.mods.zerocore.ZeroCore;
 import it.zerono.mods.zerocore.internal.InternalCommand;
 import it.zerono.mods.zerocore.lib.data.nbt.NBTBuilder;
-import it.zerono.mods.zerocore.lib.item.inventory.container.ModContainer;
+import it.zerono.mods.zerocore.lib.multiblock.AbstractMultiblockController;
 import it.zerono.mods.zerocore.lib.network.IModMessage;
 import it.zerono.mods.zerocore.lib.network.ModSyncableTileMessage;
 import it.zerono.mods.zerocore.lib.network.NetworkHandler;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.NonNullConsumer;
+import net.minecraftforge.fml.network.PacketDistributor;
 import net.minecraftforge.fml.server.ServerLifecycleHooks;
 
 import java.util.Collection;
@@ -42,6 +46,8 @@ public final class Network {
         HANDLER.registerMessage(ErrorReportMessage.class, ErrorReportMessage::new);
         HANDLER.registerMessage(InternalCommandMessage.class, InternalCommandMessage::new);
         HANDLER.registerMessage(ContainerDataMessage.class, ContainerDataMessage::new);
+        HANDLER.registerMessage(MultiblockValidationMessage.class, MultiblockValidationMessage::new);
+        HANDLER.registerMessage(SyncResyncRequestMessage.class, SyncResyncRequestMessage::new);
     }
 
     public static <Message extends IModMessage> void sendToAllPlayers(final Message message) {
@@ -67,14 +73,34 @@ public final class Network {
         players.forEach(player -> HANDLER.sendToPlayer(message, player));
     }
 
-    public static void sendServerContainerData(final Collection<ServerPlayerEntity> players, final ModContainer container) {
+    public static void sendServerContainerData(final Collection<ServerPlayerEntity> players,
+                                               final NonNullConsumer<PacketBuffer> containerDataWriter) {
 
-        final ContainerDataMessage message = new ContainerDataMessage(container);
+        final ContainerDataMessage message = new ContainerDataMessage(containerDataWriter);
 
         players.forEach(player -> HANDLER.sendToPlayer(message, player));
     }
 
+    public static void sendMultiblockValidationRequest(final AbstractMultiblockController<?> controller,
+                                                       final BlockPos referencePosition) {
+        HANDLER.sendTo(MultiblockValidationMessage.request(controller, referencePosition),
+                PacketDistributor.TRACKING_CHUNK.with(() -> controller.getWorld().getChunkAt(referencePosition)));
+    }
+
+    public static void sendMultiblockValidationRequest(final AbstractMultiblockController<?> controller,
+                                                       final BlockPos referencePosition, final ServerPlayerEntity player) {
+        HANDLER.sendToPlayer(MultiblockValidationMessage.request(controller, referencePosition), player);
+    }
+
+    public static void sendMultiblockValidationMismatch(final BlockPos serverReferencePosition) {
+        HANDLER.sendToServer(MultiblockValidationMessage.mismatch(serverReferencePosition));
+    }
+
+    public static void sendSyncResyncRequest(final BlockPos tileEntityPosition, final boolean nested) {
+        HANDLER.sendToServer(new SyncResyncRequestMessage(tileEntityPosition, nested));
+    }
+
     static {
-        HANDLER = new NetworkHandler(ZeroCore.newID("network"), "1");
+        HANDLER = new NetworkHandler(ZeroCore.newID("network"), "2");
     }
 }
@@ -0,0 +1,107 @@
+/*
+ *
+ * SyncResyncRequestMessage.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.internal.network;
+
+import it.zerono.mods.zerocore.internal.Log;
+import it.zerono.mods.zerocore.lib.data.nbt.INestedSyncableEntity;
+import it.zerono.mods.zerocore.lib.network.AbstractModTileMessage;
+import it.zerono.mods.zerocore.lib.network.INetworkTileEntitySyncProvider;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+/**
+ * Sent by the client when it receive a delta for a version of the data of a syncable entity that it don't have:
+ * the server will send the full data of the entity to the player with the next update
+ */
+public class SyncResyncRequestMessage
+        extends AbstractModTileMessage {
+
+    public SyncResyncRequestMessage(final PacketBuffer buffer) {
+
+        super(buffer);
+        this._nested = buffer.readBoolean();
+        this._player = null;
+    }
+
+    //region AbstractModTileMessage
+
+    @Override
+    public void encodeTo(final PacketBuffer buffer) {
+
+        super.encodeTo(buffer);
+        buffer.writeBoolean(this._nested);
+    }
+
+    @Override
+    public void processMessage(final NetworkEvent.Context messageContext) {
+
+        this._player = messageContext.getSender();
+        super.processMessage(messageContext);
+    }
+
+    /**
+     * Process the data received from the network.
+     *
+     * @param tileEntity the TileEntity object on the other side of this message exchange
+     */
+    @Override
+    protected void processTileEntityMessage(final LogicalSide sourceSide, final TileEntity tileEntity) {
+
+        if (sourceSide.isServer() || null == this._player) {
+            return;
+        }
+
+        Object provider = tileEntity;
+
+        if (tileEntity instanceof INestedSyncableEntity && this._nested) {
+            provider = ((INestedSyncableEntity)tileEntity).getNestedSyncableEntity().orElse(null);
+        }
+
+        if (provider instanceof INetworkTileEntitySyncProvider) {
+            ((INetworkTileEntitySyncProvider)provider).requestFullUpdate(this._player);
+        } else {
+            Log.LOGGER.error(Log.NETWORK, "No sync provider found while processing a resync request: skipping");
+        }
+    }
+
+    //endregion
+    //region internals
+
+    /**
+     * Construct the message on the sender side
+     *
+     * @param tileEntityPosition the coordinates of the entity to sync, as found in the sync message
+     * @param nested true if the entity is nested inside another entity
+     */
+    SyncResyncRequestMessage(final BlockPos tileEntityPosition, final boolean nested) {
+
+        super(tileEntityPosition);
+        this._nested = nested;
+        this._player = null;
+    }
+
+    private final boolean _nested;
+    private ServerPlayerEntity _player;
+
+    //endregion
+}
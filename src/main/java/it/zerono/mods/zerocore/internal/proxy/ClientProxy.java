@@ -19,6 +19,9 @@
 package it.zerono.mods.zerocore.internal.proxy;
 
 import com.mojang.blaze3d.matrix.MatrixStack;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.zerono.mods.zerocore.internal.InternalCommand;
 import it.zerono.mods.zerocore.internal.client.RenderTypes;
 import it.zerono.mods.zerocore.internal.network.ErrorReportMessage;
@@ -43,6 +46,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.SectionPos;
 import net.minecraft.util.math.shapes.VoxelShapes;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.text.ITextComponent;
@@ -72,6 +76,7 @@ public class ClientProxy
     public ClientProxy() {
 
         this._guiErrorData = new GuiErrorData();
+        this._dirtySections = new LongOpenHashSet(64);
 
         final IEventBus modBus = Mod.EventBusSubscriber.Bus.MOD.bus().get();
 
@@ -107,10 +112,53 @@ public class ClientProxy
         return Optional.ofNullable(Minecraft.getInstance().player);
     }
 
+    /**
+     * Schedule a render update for the chunk sections touched by the given blocks range, plus the blocks around it.
+     * The sections are rendered again at the start of the next frame. If called from another thread, the request is
+     * handed over to the client thread
+     */
     @Override
     public void markBlockRangeForRenderUpdate(BlockPos min, BlockPos max) {
-        Minecraft.getInstance().levelRenderer.setBlocksDirty(min.getX(), min.getY(), min.getZ(),
-                max.getX(), max.getY(), max.getZ());
+
+        final Minecraft mc = Minecraft.getInstance();
+
+        if (!mc.isSameThread()) {
+
+            final BlockPos immutableMin = min.immutable(), immutableMax = max.immutable();
+
+            mc.execute(() -> this.markBlockRangeForRenderUpdate(immutableMin, immutableMax));
+            return;
+        }
+
+        final int maxSectionX = (max.getX() + 1) >> 4;
+        final int maxSectionY = (max.getY() + 1) >> 4;
+        final int maxSectionZ = (max.getZ() + 1) >> 4;
+
+        for (int x = (min.getX() - 1) >> 4; x <= maxSectionX; ++x) {
+            for (int y = (min.getY() - 1) >> 4; y <= maxSectionY; ++y) {
+                for (int z = (min.getZ() - 1) >> 4; z <= maxSectionZ; ++z) {
+                    this._dirtySections.add(SectionPos.asLong(x, y, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedule a render update for the chunk section containing the given block. Use this when only the model data
+     * of the block is changed. The section is rendered again at the start of the next frame. If called from another
+     * thread, the request is handed over to the client thread
+     */
+    @Override
+    public void markBlockForRenderUpdate(BlockPos position) {
+
+        final long section = SectionPos.asLong(position.getX() >> 4, position.getY() >> 4, position.getZ() >> 4);
+        final Minecraft mc = Minecraft.getInstance();
+
+        if (mc.isSameThread()) {
+            this._dirtySections.add(section);
+        } else {
+            mc.execute(() -> this._dirtySections.add(section));
+        }
     }
 
     @Override
@@ -203,7 +251,11 @@ public class ClientProxy
 
     private void onRenderTick(final TickEvent.RenderTickEvent event) {
 
-        if (TickEvent.Phase.END == event.phase) {
+        if (TickEvent.Phase.START == event.phase) {
+
+            this.flushDirtySections();
+
+        } else if (TickEvent.Phase.END == event.phase) {
 
             s_lastRenderTime = System.currentTimeMillis();
             this._guiErrorData.tick();
@@ -254,6 +306,32 @@ public class ClientProxy
                 ERROR_HIGHLIGHT1_COLOUR, ERROR_HIGHLIGHT2_COLOUR);
     }
 
+    /**
+     * Render again all the chunk sections scheduled for an update since the last frame
+     */
+    private void flushDirtySections() {
+
+        if (this._dirtySections.isEmpty()) {
+            return;
+        }
+
+        final Minecraft mc = Minecraft.getInstance();
+
+        if (null != mc.level) {
+
+            final LongIterator iterator = this._dirtySections.iterator();
+
+            while (iterator.hasNext()) {
+
+                final long section = iterator.nextLong();
+
+                mc.levelRenderer.setSectionDirty(SectionPos.x(section), SectionPos.y(section), SectionPos.z(section));
+            }
+        }
+
+        this._dirtySections.clear();
+    }
+
     private static boolean isGuiOpen() {
         return null != Minecraft.getInstance().screen;
     }
@@ -267,5 +345,8 @@ public class ClientProxy
 
     private final GuiErrorData _guiErrorData;
 
+    // chunk sections waiting to be rendered again, collected between two frames. Only accessed by the client thread
+    private final LongSet _dirtySections;
+
     //endregion
 }
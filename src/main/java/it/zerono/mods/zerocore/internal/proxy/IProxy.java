@@ -43,6 +43,8 @@ public interface IProxy {
 
     void markBlockRangeForRenderUpdate(BlockPos min, BlockPos max);
 
+    void markBlockForRenderUpdate(BlockPos position);
+
     void sendPlayerStatusMessage(PlayerEntity player, ITextComponent message);
 
     void addResourceReloadListener(ISelectiveResourceReloadListener listener);
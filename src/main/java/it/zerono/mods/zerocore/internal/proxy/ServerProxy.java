@@ -59,6 +59,11 @@ public class ServerProxy implements IProxy {
         // do nothing
     }
 
+    @Override
+    public void markBlockForRenderUpdate(BlockPos position) {
+        // do nothing
+    }
+
     @Override
     public void sendPlayerStatusMessage(final PlayerEntity player, final ITextComponent message) {
 
@@ -523,6 +523,15 @@ public abstract class AbstractModBlockEntity
         WorldHelper.markBlockRangeForRenderUpdate(this.getBlockPos(), this.getBlockPos());
     }
 
+    /**
+     * Schedule a render update for the chunk section containing this block only, without touching the blocks around it.
+     * Use this instead of {@link #markForRenderUpdate()} when only the model data of this block is changed and the
+     * rendering of the neighboring blocks does not depend on it
+     */
+    public void markModelForRenderUpdate() {
+        WorldHelper.markBlockForRenderUpdate(this.getBlockPos());
+    }
+
     public void requestClientRenderUpdate() {
 
         if (null != this.level) {
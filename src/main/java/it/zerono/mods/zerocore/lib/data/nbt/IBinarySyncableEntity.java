@@ -0,0 +1,45 @@
+/*
+ *
+ * IBinarySyncableEntity.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.data.nbt;
+
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * A {@link ISyncableEntity} that could also be synced over the network in a compact binary form, without building
+ * a {@link net.minecraft.nbt.CompoundNBT}. Usually implemented with a {@link SyncSchema} declared once for the entity class.
+ *
+ * The NBT methods of {@link ISyncableEntity} are still used to save and load the entity to/from disk
+ */
+public interface IBinarySyncableEntity
+        extends ISyncableEntity {
+
+    /**
+     * Sync the entity data from the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to read from
+     */
+    void syncDataFrom(PacketBuffer buffer);
+
+    /**
+     * Sync the entity data to the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to write to
+     */
+    void syncDataTo(PacketBuffer buffer);
+}
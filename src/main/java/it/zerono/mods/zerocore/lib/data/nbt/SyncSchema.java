@@ -0,0 +1,310 @@
+/*
+ *
+ * SyncSchema.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.data.nbt;
+
+import com.google.common.collect.ImmutableList;
+import it.zerono.mods.zerocore.lib.data.WideAmount;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fluids.FluidStack;
+
+import java.util.List;
+import java.util.function.*;
+
+/**
+ * A list of typed fields of an entity that are written to, and read from, a {@link PacketBuffer} in the order
+ * they were declared. No keys or type tags are written: both sides of the network must use the same schema.
+ *
+ * Declare a schema once for an entity class and use it to implement {@link IBinarySyncableEntity}:
+ *
+ * <pre>
+ * private static final SyncSchema&lt;MyEntity&gt; SCHEMA = SyncSchema.&lt;MyEntity&gt;builder()
+ *         .addVarInt(e -&gt; e._amount, (e, v) -&gt; e._amount = v)
+ *         .addBoolean(e -&gt; e._active, (e, v) -&gt; e._active = v)
+ *         .build();
+ * </pre>
+ *
+ * @param <T> the type of the entity
+ */
+public final class SyncSchema<T> {
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Write the fields of the entity to the buffer
+     *
+     * @param entity the entity
+     * @param buffer the {@link PacketBuffer} to write to
+     */
+    public void write(final T entity, final PacketBuffer buffer) {
+
+        for (int idx = 0; idx < this._fields.size(); ++idx) {
+            this._fields.get(idx).write(entity, buffer);
+        }
+    }
+
+    /**
+     * Read the fields of the entity from the buffer
+     *
+     * @param entity the entity
+     * @param buffer the {@link PacketBuffer} to read from
+     */
+    public void read(final T entity, final PacketBuffer buffer) {
+
+        for (int idx = 0; idx < this._fields.size(); ++idx) {
+            this._fields.get(idx).read(entity, buffer);
+        }
+    }
+
+    /**
+     * @return the number of fields in this schema
+     */
+    public int size() {
+        return this._fields.size();
+    }
+
+    //region Builder
+
+    public static final class Builder<T> {
+
+        /**
+         * Add an int field written as a variable-length value. Best suited for small, non-negative, values
+         */
+        public Builder<T> addVarInt(final ToIntFunction<T> getter, final ObjIntConsumer<T> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeVarInt(getter.applyAsInt(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readVarInt());
+                }
+            });
+        }
+
+        /**
+         * Add an int field written as a fixed-width value
+         */
+        public Builder<T> addInt(final ToIntFunction<T> getter, final ObjIntConsumer<T> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeInt(getter.applyAsInt(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readInt());
+                }
+            });
+        }
+
+        /**
+         * Add a long field written as a variable-length value. Best suited for small, non-negative, values
+         */
+        public Builder<T> addVarLong(final ToLongFunction<T> getter, final ObjLongConsumer<T> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeVarLong(getter.applyAsLong(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readVarLong());
+                }
+            });
+        }
+
+        /**
+         * Add a long field written as a fixed-width value
+         */
+        public Builder<T> addLong(final ToLongFunction<T> getter, final ObjLongConsumer<T> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeLong(getter.applyAsLong(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readLong());
+                }
+            });
+        }
+
+        public Builder<T> addDouble(final ToDoubleFunction<T> getter, final ObjDoubleConsumer<T> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeDouble(getter.applyAsDouble(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readDouble());
+                }
+            });
+        }
+
+        public Builder<T> addBoolean(final Predicate<T> getter, final BiConsumer<T, Boolean> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeBoolean(getter.test(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readBoolean());
+                }
+            });
+        }
+
+        /**
+         * Add an enum field written as the variable-length ordinal of the value
+         */
+        public <E extends Enum<E>> Builder<T> addEnum(final Class<E> enumClass, final Function<T, E> getter,
+                                                      final BiConsumer<T, E> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeEnum(getter.apply(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readEnum(enumClass));
+                }
+            });
+        }
+
+        public Builder<T> addWideAmount(final Function<T, WideAmount> getter, final BiConsumer<T, WideAmount> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    getter.apply(entity).serializeTo(buffer);
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, WideAmount.from(buffer));
+                }
+            });
+        }
+
+        public Builder<T> addFluidStack(final Function<T, FluidStack> getter, final BiConsumer<T, FluidStack> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeFluidStack(getter.apply(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readFluidStack());
+                }
+            });
+        }
+
+        public Builder<T> addItemStack(final Function<T, ItemStack> getter, final BiConsumer<T, ItemStack> setter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    buffer.writeItem(getter.apply(entity));
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    setter.accept(entity, buffer.readItem());
+                }
+            });
+        }
+
+        /**
+         * Add a child entity that is synced, in place, with its own binary data
+         */
+        public Builder<T> addNested(final Function<T, ? extends IBinarySyncableEntity> getter) {
+            return this.add(new Field<T>() {
+
+                @Override
+                public void write(final T entity, final PacketBuffer buffer) {
+                    getter.apply(entity).syncDataTo(buffer);
+                }
+
+                @Override
+                public void read(final T entity, final PacketBuffer buffer) {
+                    getter.apply(entity).syncDataFrom(buffer);
+                }
+            });
+        }
+
+        public SyncSchema<T> build() {
+            return new SyncSchema<>(this._fields.build());
+        }
+
+        //region internals
+
+        private Builder() {
+            this._fields = ImmutableList.builder();
+        }
+
+        private Builder<T> add(final Field<T> field) {
+
+            this._fields.add(field);
+            return this;
+        }
+
+        private final ImmutableList.Builder<Field<T>> _fields;
+
+        //endregion
+    }
+
+    //endregion
+    //region internals
+
+    private interface Field<T> {
+
+        void write(T entity, PacketBuffer buffer);
+
+        void read(T entity, PacketBuffer buffer);
+    }
+
+    private SyncSchema(final List<Field<T>> fields) {
+        this._fields = fields;
+    }
+
+    private final List<Field<T>> _fields;
+
+    //endregion
+}
@@ -21,14 +21,16 @@ package it.zerono.mods.zerocore.lib.energy;
 import it.zerono.mods.zerocore.lib.IDebugMessages;
 import it.zerono.mods.zerocore.lib.IDebuggable;
 import it.zerono.mods.zerocore.lib.data.WideAmount;
-import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.IBinarySyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.SyncSchema;
 import it.zerono.mods.zerocore.lib.data.stack.OperationMode;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fml.LogicalSide;
 
 @SuppressWarnings({"unused", "WeakerAccess", "UnusedReturnValue"})
 public class WideEnergyBuffer
-        implements IWideEnergyStorage2, ISyncableEntity, IDebuggable {
+        implements IWideEnergyStorage2, IBinarySyncableEntity, IDebuggable {
 
     public WideEnergyBuffer(EnergySystem system, WideAmount capacity) {
         this(system, capacity, capacity, capacity);
@@ -313,6 +315,31 @@ public class WideEnergyBuffer
         return data;
     }
 
+    //endregion
+    //region IBinarySyncableEntity
+
+    /**
+     * Sync the entity data from the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to read from
+     */
+    @Override
+    public void syncDataFrom(final PacketBuffer buffer) {
+
+        SYNC_SCHEMA.read(this, buffer);
+        this._modified = true;
+    }
+
+    /**
+     * Sync the entity data to the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to write to
+     */
+    @Override
+    public void syncDataTo(final PacketBuffer buffer) {
+        SYNC_SCHEMA.write(this, buffer);
+    }
+
     //endregion
     //region IDebuggable
 
@@ -356,6 +383,13 @@ public class WideEnergyBuffer
         return this;
     }
 
+    private static final SyncSchema<WideEnergyBuffer> SYNC_SCHEMA = SyncSchema.<WideEnergyBuffer>builder()
+            .addWideAmount(b -> b._capacity, (b, v) -> b._capacity = v)
+            .addWideAmount(b -> b._maxInsert, (b, v) -> b._maxInsert = v)
+            .addWideAmount(b -> b._maxExtract, (b, v) -> b._maxExtract = v)
+            .addWideAmount(b -> b._energy, (b, v) -> b._energy = v)
+            .build();
+
     private final EnergySystem _system;
     private WideAmount _energy;
     private WideAmount _capacity;
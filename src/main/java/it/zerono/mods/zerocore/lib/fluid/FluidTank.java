@@ -20,9 +20,11 @@ package it.zerono.mods.zerocore.lib.fluid;
 
 import it.zerono.mods.zerocore.lib.IDebugMessages;
 import it.zerono.mods.zerocore.lib.IDebuggable;
-import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.IBinarySyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.SyncSchema;
 import it.zerono.mods.zerocore.lib.data.stack.AbstractStackHolder;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.IFluidTank;
 import net.minecraftforge.fluids.capability.IFluidHandler;
@@ -34,7 +36,7 @@ import java.util.function.BiPredicate;
 
 public class FluidTank
         extends AbstractStackHolder<FluidTank, FluidStack>
-        implements IFluidHandler, IFluidTank, ISyncableEntity, IDebuggable {
+        implements IFluidHandler, IFluidTank, IBinarySyncableEntity, IDebuggable {
 
     public FluidTank(final int capacity) {
         this._capacity = capacity;
@@ -326,6 +328,31 @@ public class FluidTank
         return data;
     }
 
+    //endregion
+    //region IBinarySyncableEntity
+
+    /**
+     * Sync the entity data from the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to read from
+     */
+    @Override
+    public void syncDataFrom(final PacketBuffer buffer) {
+
+        SYNC_SCHEMA.read(this, buffer);
+        this.onLoad();
+    }
+
+    /**
+     * Sync the entity data to the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to write to
+     */
+    @Override
+    public void syncDataTo(final PacketBuffer buffer) {
+        SYNC_SCHEMA.write(this, buffer);
+    }
+
     //endregion
     //region IDebuggable
 
@@ -343,6 +370,11 @@ public class FluidTank
     //endregion
     //region internals
 
+    private static final SyncSchema<FluidTank> SYNC_SCHEMA = SyncSchema.<FluidTank>builder()
+            .addVarInt(FluidTank::getCapacity, FluidTank::setCapacity)
+            .addFluidStack(FluidTank::getFluid, FluidTank::setContent)
+            .build();
+
     protected FluidStack _content = FluidStack.EMPTY;
     protected int _capacity;
 
@@ -68,12 +68,15 @@ public class ModContainer
     public static final String SLOTGROUPNAME_PLAYER_INVENTORY = "playerinventory_main";
     public static final String SLOTGROUPNAME_PLAYER_HOTBAR = "playerinventory_hotbar";
 
+    public static final int DEFAULT_DATA_SYNC_INTERVAL = 1;
+
     public ModContainer(final ContainerFactory factory, final ContainerType<?> type, final int windowId) {
 
         super(type, windowId);
         this._factory = factory;
         this._registeredInventories = Maps.newHashMap();
         this._inventorySlotsGroups = Maps.newHashMap();
+        this._dataSyncInterval = this._ticksSinceDataSync = DEFAULT_DATA_SYNC_INTERVAL;
     }
 
     public static ModContainer empty(final ContainerType<?> type, final int windowId) {
@@ -113,6 +116,26 @@ public class ModContainer
         this._dataToSync.add(data);
     }
 
+    /**
+     * Set the minimum number of ticks between two updates of the {@link IContainerData} of this container.
+     * Changes occurring in between are not lost, they are sent with the next update
+     *
+     * @param ticks the minimum number of ticks between two updates. Must be greater than zero
+     */
+    public void setContainerDataSyncInterval(final int ticks) {
+
+        if (ticks < 1) {
+            throw new IllegalArgumentException("The container data sync interval must be greater than zero");
+        }
+
+        this._dataSyncInterval = ticks;
+        this._ticksSinceDataSync = ticks;
+    }
+
+    public int getContainerDataSyncInterval() {
+        return this._dataSyncInterval;
+    }
+
     public Runnable subscribeContainerDataUpdate(final Runnable handler) {
 
         if (null == this._dataUpdateEvent) {
@@ -170,30 +193,60 @@ public class ModContainer
      * The consumer could either serialize the whole data to a packet or only the changes occurred since the last call to this method.
      * <p>
      * Return {@code null} if no data need to be serialized to the packet (maybe because no changes occurred since the last invocation of this method).
+     * <p>
+     * The changed {@code IContainerData} are identified by a bitmask, written as one var-int for every 32 data objects,
+     * followed by the data of the changed objects in the order they were added to the container
      *
      * @return the consumer, or {@code null}
      */
     @Nullable
     @Override
     public NonNullConsumer<PacketBuffer> getContainerDataWriter() {
-        return buffer -> {
 
-            buffer.writeInt(this.containerId);
+        if (null == this._dataToSync || this._dataToSync.isEmpty()) {
+            return null;
+        }
 
-            if (null != this._dataToSync && !this._dataToSync.isEmpty()) {
-                for (int idx = 0; idx < this._dataToSync.size(); ++idx) {
+        final int count = this._dataToSync.size();
+        int[] changedMask = null;
+        ObjectList<NonNullConsumer<PacketBuffer>> writers = null;
 
-                    final NonNullConsumer<PacketBuffer> writer = this._dataToSync.get(idx).getContainerDataWriter();
+        for (int idx = 0; idx < count; ++idx) {
 
-                    if (null != writer) {
+            final NonNullConsumer<PacketBuffer> writer = this._dataToSync.get(idx).getContainerDataWriter();
 
-                        buffer.writeShort(idx);
-                        writer.accept(buffer);
-                    }
+            if (null != writer) {
+
+                if (null == writers) {
+
+                    changedMask = new int[maskWordsCount(count)];
+                    writers = new ObjectArrayList<>(count - idx);
                 }
+
+                changedMask[idx >>> 5] |= 1 << (idx & 31);
+                writers.add(writer);
+            }
+        }
+
+        if (null == writers) {
+            return null;
+        }
+
+        final int containerId = this.containerId;
+        final int[] mask = changedMask;
+        final ObjectList<NonNullConsumer<PacketBuffer>> changedWriters = writers;
+
+        return buffer -> {
+
+            buffer.writeVarInt(containerId);
+
+            for (final int word : mask) {
+                buffer.writeVarInt(word);
             }
 
-            buffer.writeShort(-1);
+            for (int idx = 0; idx < changedWriters.size(); ++idx) {
+                changedWriters.get(idx).accept(buffer);
+            }
         };
     }
 
@@ -205,12 +258,19 @@ public class ModContainer
     @Override
     public void readContainerData(final PacketBuffer dataSource) {
 
-        if (this.containerId == dataSource.readInt() && null != this._dataToSync && !this._dataToSync.isEmpty()) {
+        if (this.containerId == dataSource.readVarInt() && null != this._dataToSync && !this._dataToSync.isEmpty()) {
 
-            short idx;
+            final int count = this._dataToSync.size();
+            final int[] mask = new int[maskWordsCount(count)];
 
-            while (-1 != (idx = dataSource.readShort())) {
-                this._dataToSync.get(idx).readContainerData(dataSource);
+            for (int word = 0; word < mask.length; ++word) {
+                mask[word] = dataSource.readVarInt();
+            }
+
+            for (int idx = 0; idx < count; ++idx) {
+                if (0 != (mask[idx >>> 5] & (1 << (idx & 31)))) {
+                    this._dataToSync.get(idx).readContainerData(dataSource);
+                }
             }
 
             if (null != this._dataUpdateEvent) {
@@ -495,8 +555,15 @@ public class ModContainer
                 Network.sendServerContainerDataSync(this._dataUpdateListeners, envelope);
             }
 
-            if (null != this._dataToSync && !this._dataToSync.isEmpty()) {
-                Network.sendServerContainerData(this._dataUpdateListeners, this);
+            if (null != this._dataToSync && !this._dataToSync.isEmpty() && this.isContainerDataSyncDue()) {
+
+                final NonNullConsumer<PacketBuffer> writer = this.getContainerDataWriter();
+
+                if (null != writer) {
+
+                    this._ticksSinceDataSync = 0;
+                    Network.sendServerContainerData(this._dataUpdateListeners, writer);
+                }
             }
         }
     }
@@ -526,6 +593,19 @@ public class ModContainer
         }
     }
 
+    private boolean isContainerDataSyncDue() {
+
+        if (this._ticksSinceDataSync < this._dataSyncInterval) {
+            ++this._ticksSinceDataSync;
+        }
+
+        return this._ticksSinceDataSync >= this._dataSyncInterval;
+    }
+
+    private static int maskWordsCount(final int dataCount) {
+        return (dataCount + 31) >>> 5;
+    }
+
     private void addSlotToGroup(final String inventoryName, final Slot slot) {
         this._inventorySlotsGroups.computeIfAbsent(inventoryName, name -> Lists.newArrayList()).add(slot);
     }
@@ -558,6 +638,8 @@ public class ModContainer
     private IConditionallySyncableEntity _syncableEntity;
     private List<ServerPlayerEntity> _dataUpdateListeners;
     private ObjectList<IContainerData> _dataToSync;
+    private int _dataSyncInterval;
+    private int _ticksSinceDataSync;
 
     //endregion
 }
@@ -41,11 +41,18 @@
 
 package it.zerono.mods.zerocore.lib.multiblock;
 
-import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
-import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import it.zerono.mods.zerocore.internal.Log;
+import it.zerono.mods.zerocore.internal.network.MultiblockValidationMessage;
+import it.zerono.mods.zerocore.internal.network.Network;
 import it.zerono.mods.zerocore.lib.CodeHelper;
 import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
 import it.zerono.mods.zerocore.lib.data.nbt.INestedSyncableEntity;
@@ -68,7 +75,9 @@ import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.function.*;
 import java.util.stream.Stream;
@@ -154,8 +163,16 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
     public void attachPart(final IMultiblockPart<Controller> part) {
 
         final Controller mySelf = this.castSelf();
+        final IMultiblockPart<Controller> replacedPart = this._connectedParts.get(part.getWorldPositionHash());
+
+        if (null != replacedPart) {
+            this._structureDigest ^= structureDigestOf(replacedPart);
+        }
 
         this._connectedParts.addOrReplace(part);
+        this._partsBounds.add(part);
+        this._structureDigest ^= structureDigestOf(part);
+        this._structureChanged = true;
         part.onAttached(mySelf);
         this.partAdded(part);
 
@@ -185,13 +202,45 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         final Controller mySelf = this.castSelf();
 
-        if (chunkUnloading && this._assemblyState.isAssembled()) {
+        // On the client there is no need to keep track of the parts of unloaded chunks: they are simply detached
+        // and the machine will be rebuilt if the player come back to it
+
+        if (chunkUnloading && this.calledByLogicalServer() && this._assemblyState.isAssembled()) {
 
             this._assemblyState.setPaused();
             this.clearDataUpdatedSubscribers();
             this.onMachinePaused();
         }
 
+        if (chunkUnloading && this.calledByLogicalServer() && this._assemblyState.isPaused()) {
+
+            // The part is not gone, it will be back when its chunk is loaded again. Keep the machine paused and
+            // remember where the part was so it could be reattached without splitting and assembling the machine
+            // again. Only the position and the type of the part are kept: the unloaded tile entity is let go
+
+            this.onUnloadPart(part);
+            this._connectedParts.remove(part);
+
+            if (this._connectedParts.isEmpty()) {
+
+                this._boundingBox = CuboidBoundingBox.EMPTY;
+                this._unloadedParts = null;
+
+                // Destroy/unregister. The machine will be rebuilt from the save delegate data when it's loaded again
+                this.getRegistry().addDeadController(mySelf);
+                return;
+            }
+
+            if (null == this._unloadedParts) {
+                this._unloadedParts = new Long2ObjectOpenHashMap<>(64);
+            }
+
+            this._unloadedParts.put(part.getWorldPositionHash(), part.getClass());
+            this._needBuildingBoxRebuild = true;
+            this.getRegistry().onPartUnloaded(mySelf, part);
+            return;
+        }
+
         // Strip out this part
 
         this.onDetachPart(part);
@@ -232,10 +281,96 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         this._connectedParts.forEach(this::onDetachPart, part -> this.getWorld().hasChunkAt(part.getWorldPosition()));
         this._connectedParts = this.createPartStorage();
+        this._partsBounds.clear();
+        this._structureDigest = 0;
         this._boundingBox = CuboidBoundingBox.EMPTY;
+        this._unloadedParts = null;
         return detachedParts;
     }
 
+    /**
+     * Attach again a part that was detached from this (paused) machine when its chunk was unloaded.
+     * The part is attached to the machine without any merge or validation and its multiblock save data, if any, is
+     * discarded: the state of the controller is still in memory and it's more recent.
+     * Once all the unloaded parts are back, the machine is restored.
+     *
+     * A part of a different type than the unloaded one was placed there while the chunk was unloaded: the unloaded
+     * part is forgotten (see {@link #forgetUnloadedPart(long)}) and the new part is not reattached.
+     *
+     * @param part The reloaded part
+     * @return True if the part was reattached, false if this machine is not waiting for it
+     */
+    @Override
+    public boolean reattachUnloadedPart(final IMultiblockPart<Controller> part) {
+
+        final long positionHash = part.getWorldPositionHash();
+        final Class<?> unloadedPartType = null != this._unloadedParts ? this._unloadedParts.get(positionHash) : null;
+
+        if (null == unloadedPartType) {
+            return false;
+        }
+
+        if (unloadedPartType != part.getClass()) {
+
+            this.forgetUnloadedPart(positionHash);
+            return false;
+        }
+
+        final Controller mySelf = this.castSelf();
+
+        this._unloadedParts.remove(positionHash);
+        this._connectedParts.addOrReplace(part);
+        this._partsBounds.add(part);
+        this._structureDigest ^= structureDigestOf(part);
+        part.onAttached(mySelf);
+        part.onMultiblockDataAssimilated();
+        this.partAdded(part);
+        this.getReferenceTracker().accept(part);
+
+        if (this._unloadedParts.isEmpty()) {
+
+            this._unloadedParts = null;
+
+            if (this._assemblyState.isPaused() && !this._structureChanged) {
+
+                // nothing changed while the machine was partially unloaded, no need to validate it again
+                this.recalculateCoords();
+                this.assembleMachine(true);
+
+            } else {
+
+                // the machine must be validated again
+                this.getRegistry().addDirtyController(mySelf);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Give up waiting for a part that was detached when its chunk was unloaded: the chunk is loaded again but the
+     * part didn't come back. The part is handled as if it was removed from the world.
+     *
+     * @param positionHash The position of the part
+     */
+    @Override
+    public void forgetUnloadedPart(final long positionHash) {
+
+        if (null == this._unloadedParts || null == this._unloadedParts.remove(positionHash)) {
+            return;
+        }
+
+        if (this._unloadedParts.isEmpty()) {
+            this._unloadedParts = null;
+        }
+
+        // there is no part to detach but the machine could have been split: visit it all again
+        this._unloadedPartsForgotten = true;
+        this._shouldCheckForDisconnections = true;
+        this._structureChanged = true;
+        this.getRegistry().addDirtyController(this.castSelf());
+    }
+
     /**
      * Assimilate another controller into this controller.
      * Acquire all of the other controller's blocks and attach them
@@ -253,12 +388,18 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         // should I be the one consuming the other controller?
 
         if (this.compareTo(other) >= 0) {
-            throw new IllegalArgumentException("The controller with the lowest minimum-coord value must consume the one with the higher coords");
+            throw new IllegalArgumentException("The controller with the most parts (or, if they are the same size, the lowest reference coordinates) must consume the other one");
         }
 
+        final long startTime = ControllerProfile.start();
         final IPartStorage<Controller> otherParts = other._connectedParts;
         final int otherPartsCount = otherParts.size();
 
+        // the two machines don't share any part so their digests could be simply combined
+        this._structureDigest ^= other._structureDigest;
+        this._partsBounds = this._partsBounds.merge(other._partsBounds);
+        this._structureChanged = true;
+
         if (1 == otherPartsCount) {
 
             final IMultiblockPart<Controller> acquiredPart = Objects.requireNonNull(otherParts.getFirst());
@@ -296,6 +437,8 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         this.onAssimilate(other);
         other.onAssimilated(this);
+
+        this._profile.record(ControllerProfile.Section.Merge, startTime);
     }
 
     /**
@@ -368,23 +511,51 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
     @Override
     public IPartStorage<Controller> checkForDisconnections() {
 
-        if (!this._shouldCheckForDisconnections || null == this._detachedParts || this._detachedParts.isEmpty()) {
+        if (!this._shouldCheckForDisconnections ||
+                ((null == this._detachedParts || this._detachedParts.isEmpty()) && !this._unloadedPartsForgotten)) {
             return EmptyPartStorage.getInstance();
         }
 
-        // Invalidate our reference coordinate, we'll recalculate it shortly
+        final long startTime = ControllerProfile.start();
+        final IPartStorage<Controller> removedParts = this.removeDisconnectedParts();
 
-        final ReferencePartTracker<Controller> reference = this.getReferenceTracker();
+        this._profile.record(ControllerProfile.Section.Disconnections, startTime);
+        return removedParts;
+    }
 
-        reference.invalidate();
+    /**
+     * Detach all the parts that can no longer reach the reference part.
+     *
+     * @return the detached parts
+     */
+    private IPartStorage<Controller> removeDisconnectedParts() {
 
-        // Reset visitations and find the reference coordinate
+        // If the parts that were next to the detached ones can still reach each other, the machine was not split
+        // and there is no need to visit all the parts
 
-        this._connectedParts.forEach(part -> {
+        if (!this.isEmpty() && !this._unloadedPartsForgotten &&
+                this.areDetachedPartsNeighborsConnected(this._detachedParts)) {
 
-            part.setUnvisited();
-            reference.accept(part);
-        });
+            this._detachedParts = null;
+            this._shouldCheckForDisconnections = false;
+            return EmptyPartStorage.getInstance();
+        }
+
+        // Reset visitations
+
+        this._connectedParts.forEach(IMultiblockPart::setUnvisited);
+
+        // Find the reference coordinate again
+
+        final IMultiblockPart<Controller> previousReference = this._reference.get();
+
+        this._reference.invalidate();
+
+        final ReferencePartTracker<Controller> reference = this.getReferenceTracker();
+
+        if (null != previousReference && !reference.test(previousReference)) {
+            previousReference.forfeitMultiblockSaveDelegate();
+        }
 
         final Controller mySelf = this.castSelf();
 
@@ -400,6 +571,7 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         // Release the detached parts
 
         this._detachedParts = null;
+        this._unloadedPartsForgotten = false;
 
         // Now visit all connected parts
 
@@ -467,7 +639,36 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         this._lastValidationError = null;
 
-        if (this.isMachineWhole(this)) {
+        if (this._serverRequestPending && this.calledByLogicalClient()) {
+            this.checkPendingClientValidationRequest();
+        }
+
+        final long startTime = ControllerProfile.start();
+        final boolean whole;
+
+        if (this.hasServerAssemblyState()) {
+
+            // The client structure match the server one: rely on the assembly state of the server. A machine that
+            // is not assembled is still validated to report the error to the player
+            if (this._serverAssembled) {
+
+                this.onServerAssemblyState();
+                whole = true;
+
+            } else {
+
+                this.isMachineWhole(this);
+                whole = false;
+            }
+
+        } else {
+
+            whole = this.isMachineWhole(this);
+        }
+
+        this._profile.record(ControllerProfile.Section.Validation, startTime);
+
+        if (whole) {
 
             // This will alter assembly state
             this.assembleMachine(this._assemblyState.isPaused());
@@ -480,6 +681,7 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         // Else Paused, do nothing
 
         this._detachedParts = null;
+        this._unloadedPartsForgotten = false;
 
         this.callOnLogicalClient(CodeHelper::clearErrorReport);
     }
@@ -507,6 +709,32 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         return this._assemblyState.isPaused();
     }
 
+    /**
+     * A machine that is not assembled don't run any game logic so it sleep until its assembly state changes, unless
+     * its chunks are still to be marked as unsaved (see {@link #getChunksUnsavedInterval()}).
+     *
+     * @return the number of ticks to wait before the next update or {@link #UPDATE_SLEEP}
+     */
+    @Override
+    public int getNextUpdateDelay() {
+
+        if (this.isAssembled()) {
+            return 1;
+        }
+
+        return this._chunksUnsavedPending ?
+                (int)Math.max(1, this._nextChunksUnsavedTick - this.getWorld().getGameTime()) : UPDATE_SLEEP;
+    }
+
+    /**
+     * Schedule an update for this controller on the next tick if it's sleeping or if it asked to be updated later.
+     * Call this when something outside of the controller (a capability, a neighboring block, ...) changed in a way
+     * that require the game logic to run again
+     */
+    public void wakeUp() {
+        this.getRegistry().wakeUp(this.castSelf());
+    }
+
     /**
      * Driver for the update loop. If the machine is assembled, runs
      * the game logic update method.
@@ -522,6 +750,11 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
             return;
         }
 
+        if (this._chunksUnsavedPending) {
+            // changes reported by a previous update that are still to be saved
+            this.markChunksUnsaved();
+        }
+
         if (!this.isAssembled()) {
             // Not assembled - don't run game logic
             return;
@@ -535,31 +768,13 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
                 this.raiseDataUpdated();
             }
 
-        } else if (this.updateServer()) {
+        } else if (this.profiledUpdateServer()) {
 
             this.raiseDataUpdated();
 
             // If this returns true, the server has changed its internal data.
             // If our chunks are loaded (they should be), we must mark our chunks as dirty.
-
-            final World myWorld = this.getWorld();
-            final BlockPos min = this._boundingBox.getMin();
-            final BlockPos max = this._boundingBox.getMax();
-
-            if (myWorld.hasChunksAt(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ())) {
-
-                final int minChunkX = WorldHelper.getChunkXFromBlock(min);
-                final int minChunkZ = WorldHelper.getChunkZFromBlock(min);
-                final int maxChunkX = WorldHelper.getChunkXFromBlock(max);
-                final int maxChunkZ = WorldHelper.getChunkZFromBlock(max);
-
-                for (int x = minChunkX; x <= maxChunkX; ++x) {
-                    for(int z = minChunkZ; z <= maxChunkZ; ++z) {
-                        // Ensure that we save our data, even if our save delegate has no TEs.
-                        myWorld.getChunk(x, z).markUnsaved();
-                    }
-                }
-            }
+            this.markChunksUnsaved();
         }
         // Else: Server, but no need to save data.
     }
@@ -605,6 +820,13 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         return Optional.of(this._boundingBox.getMin());
     }
 
+    /**
+     * @return The timings of the most expensive operations of this controller
+     */
+    public ControllerProfile getProfile() {
+        return this._profile;
+    }
+
     /**
      * @return The bounding-box encompassing this machine's blocks.
      */
@@ -775,7 +997,13 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
      */
     @Override
     public void enlistForUpdates(ServerPlayerEntity player, boolean updateNow) {
+
         this._syncProvider.enlistForUpdates(player, updateNow && this.calledByLogicalServer());
+
+        if (updateNow) {
+            this.callOnLogicalServer(() -> this.getReferenceCoord()
+                    .ifPresent(position -> Network.sendMultiblockValidationRequest(this, position, player)));
+        }
     }
 
     /**
@@ -796,6 +1024,17 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         this.callOnLogicalServer(this._syncProvider::sendUpdates);
     }
 
+    /**
+     * Send the full data of the entity to an enlisted player with the next update.
+     * Called when the player could not apply the last update it received.
+     *
+     * @param player the player to send the full data to. Players that are not enlisted are ignored.
+     */
+    @Override
+    public void requestFullUpdate(ServerPlayerEntity player) {
+        this.callOnLogicalServer(() -> this._syncProvider.requestFullUpdate(player));
+    }
+
     //endregion
     //region Object
 
@@ -811,16 +1050,21 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 	protected AbstractMultiblockController(final World world) {
 
         this._assemblyState = new AssemblyState();
+        this._profile = new ControllerProfile();
         this._connectedParts = this.createPartStorage();
+        this._partsBounds = new PartsBoundsTracker<>();
         this._world = world;
         this._lastValidationError = null;
         this._reference = new ReferencePartTracker<>();
         this._boundingBox = CuboidBoundingBox.EMPTY;
         this._shouldCheckForDisconnections = false;
+        this._structureChanged = false;
         this._syncProvider = NetworkTileEntitySyncProvider.create(
-                () -> this.getReferenceCoord().orElseGet(() -> new BlockPos(0, 0, 0)), this);
+                () -> this.getReferenceCoord().orElseGet(() -> new BlockPos(0, 0, 0)), this, world);
         this._requestDataUpdateNotification = false;
         this._needBuildingBoxRebuild = false;
+        this._serverBoundingBox = CuboidBoundingBox.EMPTY;
+        this._serverReferencePosition = BlockPos.ZERO;
 
         this.DataUpdated = new Event<>();
 	}
@@ -923,6 +1167,14 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 	 */
 	protected abstract boolean isMachineWhole(IMultiblockValidator validatorCallback);
 
+    /**
+     * Called on the client, in place of {@link #isMachineWhole(IMultiblockValidator)}, when the machine is assembled
+     * on the server and the client structure match the server one.
+     * Override to update any client-side state that is normally set up during the validation of the machine
+     */
+    protected void onServerAssemblyState() {
+    }
+
 	/**
 	 * Callback. Called after this controller assimilates all the blocks
 	 * from another controller.
@@ -945,6 +1197,8 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 	 * You do not need to call your superclass' update() if you're directly
 	 * derived from AbstractMultiblockController. This is a callback.
 	 * Note that this will only be called when the machine is assembled.
+	 * If the controller implement {@link IParallelUpdatableController} this is where the results of
+	 * {@link IParallelUpdatableController#simulateUpdate()} should be applied to the world.
 	 * @return True if the multiblock should save data, i.e. its internal game state has changed. False otherwise.
 	 */
 	protected abstract boolean updateServer();
@@ -1034,77 +1288,170 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
     }
 
     protected CuboidBoundingBox buildBoundingBox() {
-        return this._connectedParts.boundingBox();
+        return this._partsBounds.boundingBox();
     }
 
-    /*
-	/ **
-     * Called on the server to fill in the structure data for a validation request about to be sent to the client
-	 * @param data the buffer to write the data to
-	 * /
-    public void fillClientValidationRequest(final ByteBuf data) {
-
-        data.writeInt(this._minimumCoord.getX());
-        data.writeInt(this._minimumCoord.getY());
-        data.writeInt(this._minimumCoord.getZ());
-
-        data.writeInt(this._maximumCoord.getX());
-        data.writeInt(this._maximumCoord.getY());
-        data.writeInt(this._maximumCoord.getZ());
-    }
-
-	/ **
-     * Called on the client to process a structure validation request from the server
-	 * @param serverReferenceCoord the reference coordinates on the server
-	 * @param data the structure data
-	 * @return return true if the client structure match the server one. false otherwise
-	 * /
-    public boolean processClientValidationRequest(final BlockPos serverReferenceCoord, final ByteBuf data) {
-
-        if (!this._referenceCoord.equals(serverReferenceCoord))
-            return false;
-
-        final BlockPos serverMinCoord = new BlockPos(data.readInt(), data.readInt(), data.readInt());
-        final BlockPos serverMaxCoord = new BlockPos(data.readInt(), data.readInt(), data.readInt());
+    /**
+     * Get an order-independent digest of the structure of this machine.
+     * The position and the type of each part are mixed together and the results are combined in the digest, which is
+     * updated every time a part is attached to or detached from the machine
+     *
+     * @return the structure digest
+     */
+    public long getStructureDigest() {
+        return this._structureDigest;
+    }
 
-        return this._minimumCoord.equals(serverMinCoord) && this._maximumCoord.equals(serverMaxCoord);
+    /**
+     * Called on the client to process a structure validation request from the server.
+     *
+     * The request could arrive before the client processed the changes to the machine that the server already
+     * processed: if the structures don't match, the request is kept and checked again, on the next validation of the
+     * machine, after the client caught up. Only then the server is asked for the positions of its parts
+     *
+     * @param serverReferencePosition the position of the reference part of the machine on the server
+     * @param serverDigest the structure digest of the machine on the server
+     * @param serverPartsCount the number of parts of the machine on the server
+     * @param serverBoundingBox the bounding box of the machine on the server
+     * @param serverAssembled the assembly state of the machine on the server
+     */
+    public void processClientValidationRequest(final BlockPos serverReferencePosition, final long serverDigest,
+                                               final int serverPartsCount, final CuboidBoundingBox serverBoundingBox,
+                                               final boolean serverAssembled) {
+
+        this._serverReferencePosition = serverReferencePosition;
+        this._serverDigest = serverDigest;
+        this._serverPartsCount = serverPartsCount;
+        this._serverBoundingBox = serverBoundingBox;
+        this._serverAssembled = serverAssembled;
+        this._serverStateKnown = this.matchServerStructure();
+        this._serverRequestPending = !this._serverStateKnown;
+
+        if (this._serverRequestPending || serverAssembled != this.isAssembled()) {
+            this.getRegistry().addDirtyController(this.castSelf());
+        }
     }
 
-	/ **
-     * Called on the client to fill in the structure data for a validation response about to be sent back to the server
-	 * @param data the buffer to write the data to
-	 * /
-    public void fillClientValidationResponse(final ByteBuf data) {
+    /**
+     * Called on the server to collect the positions of all the parts of this machine for a client that reported a
+     * mismatch in the structure of the machine.
+     *
+     * Each player get at most one response every {@link #VALIDATION_RESPONSE_INTERVAL} ticks and no response is sent
+     * for machines bigger than {@link MultiblockValidationMessage#MAX_RESPONSE_POSITIONS} parts: the client keep
+     * relying on its own validation of the machine
+     *
+     * @param player the player that reported the mismatch
+     * @return the positions of the parts, or null if no response should be sent to the player
+     */
+    @Nullable
+    public long[] getClientValidationResponse(final ServerPlayerEntity player) {
+
+        final long now = this.getWorld().getGameTime();
+
+        if (null == this._validationResponsesTimes) {
+            this._validationResponsesTimes = new Object2LongOpenHashMap<>(4);
+        } else {
+            this._validationResponsesTimes.object2LongEntrySet().removeIf(entry -> entry.getLongValue() <= now);
+        }
 
-        // client reference coordinates
-        data.writeInt(this._referenceCoord.getX());
-        data.writeInt(this._referenceCoord.getY());
-        data.writeInt(this._referenceCoord.getZ());
+        if (this._validationResponsesTimes.containsKey(player.getUUID())) {
 
-        // client _minimumCoord
-        data.writeInt(this._minimumCoord.getX());
-        data.writeInt(this._minimumCoord.getY());
-        data.writeInt(this._minimumCoord.getZ());
+            Log.LOGGER.debug(Log.MULTIBLOCK, "Ignoring a structure mismatch reported too soon by {}",
+                    player.getScoreboardName());
+            return null;
+        }
+
+        this._validationResponsesTimes.put(player.getUUID(), now + VALIDATION_RESPONSE_INTERVAL);
+
+        if (this._connectedParts.size() > MultiblockValidationMessage.MAX_RESPONSE_POSITIONS) {
+
+            //noinspection AutoBoxing
+            Log.LOGGER.debug(Log.MULTIBLOCK, "Not sending the positions of {} parts to {}: the machine is too big",
+                    this._connectedParts.size(), player.getScoreboardName());
+            return null;
+        }
 
-        // client _maximumCoord
-        data.writeInt(this._maximumCoord.getX());
-        data.writeInt(this._maximumCoord.getY());
-        data.writeInt(this._maximumCoord.getZ());
+        return this._connectedParts.stream()
+                .mapToLong(IMultiblockPart::getWorldPositionHash)
+                .toArray();
     }
 
-	/ **
-     * Called on the server to process a structure validation response from the client. Override in the multiblock shape
-	 * @param data the structure data
-	 * /
-    public void processClientValidationResponse(final ByteBuf data) {
+    /**
+     * Called on the client to process the positions of the parts of the machine on the server.
+     * Loaded parts not connected to any machine are handed back to the registry and dead parts are removed
+     *
+     * @param serverPartsPositions the positions of the parts on the server
+     */
+    public void processClientValidationResponse(final long[] serverPartsPositions) {
+
+        final Controller mySelf = this.castSelf();
+        final LongSet serverPositions = new LongOpenHashSet(serverPartsPositions);
+        final List<IMultiblockPart<Controller>> deadParts = new ObjectArrayList<>();
+        int missingParts = 0, unknownParts = 0;
+
+        for (final long positionHash : serverPartsPositions) {
+
+            if (null == this._connectedParts.get(positionHash)) {
+
+                final TileEntity te = WorldHelper.getLoadedTile(this.getWorld(), BlockPos.of(positionHash));
+
+                ++missingParts;
+
+                if (te instanceof IMultiblockPart && this.getClass().equals(((IMultiblockPart<?>)te).getControllerType())) {
+
+                    //noinspection unchecked
+                    final IMultiblockPart<Controller> part = (IMultiblockPart<Controller>)te;
+
+                    if (!part.isPartInvalid() && !part.isConnected()) {
+                        this.getRegistry().onPartAdded(part);
+                    }
+                }
+            }
+        }
+
+        for (final IMultiblockPart<Controller> part : this._connectedParts) {
+
+            if (!serverPositions.contains(part.getWorldPositionHash())) {
+
+                if (part.isPartInvalid() || part != WorldHelper.getLoadedTile(this.getWorld(), part.getWorldPosition())) {
+
+                    this.onDetachPart(part);
+                    deadParts.add(part);
+
+                } else {
+
+                    ++unknownParts;
+                }
+            }
+        }
+
+        if (!deadParts.isEmpty()) {
+
+            this._connectedParts.removeAll(deadParts);
+            this._needBuildingBoxRebuild = true;
+            this.getRegistry().addDirtyController(mySelf);
+        }
+
+        //noinspection AutoBoxing
+        Log.LOGGER.debug(Log.MULTIBLOCK, "[{}] Controller structure does not match the server one: {} parts missing, {} dead parts removed, {} parts unknown to the server",
+                CodeHelper.getWorldSideName(this.getWorld()), missingParts, deadParts.size(), unknownParts);
+
+        // the missing parts will be rendered when they are attached, only the removed ones must be rendered again here
+        this.markPartsForRenderUpdate(deadParts);
     }
-    */
 
     @SuppressWarnings("unchecked")
     protected Controller castSelf() {
         return (Controller)this;
     }
 
+    /**
+     * Create a new, empty, storage for the parts of this controller.
+     * Override to return an {@link it.zerono.mods.zerocore.lib.multiblock.storage.HashPartStorage} for large machines
+     * that spend most of their time looking up parts by position
+     *
+     * @return the new storage
+     */
     protected IPartStorage<Controller> createPartStorage() {
         return new PartStorage<>();
     }
@@ -1147,20 +1494,15 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
     protected void visitAllLoadedParts() {
 
-        if (this._connectedParts.size() < 32 * 32 * 64) {
-
-            this.visitLoadedNeighboringParts(Objects.requireNonNull(this.getReferenceTracker().get()));
-            return;
-        }
-
         final IMultiblockPart<Controller> firstPart = Objects.requireNonNull(this.getReferenceTracker().get());
-        final NeighboringPositions positions = this.getNeighboringPositionsToVisit();
-        final List<IMultiblockPart<Controller>> nearbyParts = new ReferenceArrayList<>(positions.size());
+        // the parts of a paused machine that are in unloaded chunks still connect the loaded ones
+        final int partsCount = this._connectedParts.size() + (null != this._unloadedParts ? this._unloadedParts.size() : 0);
 
-        firstPart.setVisited();
-        positions.setTo(firstPart.getWorldPosition());
-        this._connectedParts.get(positions, nearbyParts);
-        nearbyParts.parallelStream().forEach(this::visitLoadedNeighboringParts);
+        // big machines are visited one BFS level at a time, visiting each level in parallel
+        if (partsCount < 32 * 32 * 64 || !ConnectedPartsVisitor.visitInParallel(firstPart, this._connectedParts,
+                this.getUnloadedPartsPositions(), this::getNeighboringPositionsToVisit)) {
+            this.visitLoadedNeighboringParts(firstPart);
+        }
     }
 
     /**
@@ -1169,34 +1511,93 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
      * @param firstPart the starting part
      */
     protected void visitLoadedNeighboringParts(final IMultiblockPart<Controller> firstPart) {
+        ConnectedPartsVisitor.visit(firstPart, this._connectedParts, this.getUnloadedPartsPositions(),
+                this.getNeighboringPositionsToVisit());
+    }
+
+    @Nullable
+    private LongSet getUnloadedPartsPositions() {
+        return null != this._unloadedParts ? this._unloadedParts.keySet() : null;
+    }
+
+    /**
+     * Check if all the connected parts that were next to the given detached parts can still reach each other.
+     *
+     * If the machine was connected before the parts were detached, every piece the machine could have been split into
+     * must contain at least one of those neighbors: if they are all connected, the machine is still whole.
+     * The search is bounded, a negative result only means that a full connectivity check is required.
+     *
+     * @param detachedParts the parts that were detached from the machine
+     * @return true if the machine is surely still connected, false otherwise
+     */
+    protected boolean areDetachedPartsNeighborsConnected(final IPartStorage<Controller> detachedParts) {
 
-        final LinkedList<IMultiblockPart<Controller>> partsToCheck = Lists.newLinkedList();
         final NeighboringPositions positions = this.getNeighboringPositionsToVisit();
-        final List<IMultiblockPart<Controller>> nearbyParts = new ReferenceArrayList<>(positions.size());
+        final LongSet neighbors = new LongOpenHashSet(detachedParts.size() * positions.size());
 
-        partsToCheck.add(firstPart);
+        for (final IMultiblockPart<Controller> detachedPart : detachedParts) {
 
-        do {
+            positions.setTo(detachedPart.getWorldPosition());
 
-            final IMultiblockPart<Controller> part = partsToCheck.removeFirst();
+            for (int n = 0; n < positions.size(); ++n) {
 
-            part.setVisited();
-            positions.setTo(part.getWorldPosition());
+                final long hash = positions.getHash(n);
 
-            this._connectedParts.get(positions, nearbyParts);
+                if (this.hasPartAt(hash)) {
+                    neighbors.add(hash);
+                }
+            }
+        }
 
-            for (final IMultiblockPart<Controller> nearbyPart : nearbyParts) {
+        if (neighbors.size() <= 1) {
+            // a single (or no) neighbor can't be disconnected from the rest of the machine
+            return true;
+        }
 
-                if (nearbyPart.isNotVisited()) {
+        // visit the machine from one of the neighbors until all the other are found or the budget runs out
 
-                    nearbyPart.setVisited();
-                    partsToCheck.add(nearbyPart);
+        final LongSet visited = new LongOpenHashSet(1024);
+        final LongArrayFIFOQueue toVisit = new LongArrayFIFOQueue(1024);
+        final long start = neighbors.iterator().nextLong();
+        int neighborsToFind = neighbors.size() - 1;
+
+        visited.add(start);
+        toVisit.enqueue(start);
+
+        while (!toVisit.isEmpty() && visited.size() < DISCONNECTION_CHECK_BUDGET) {
+
+            final long current = toVisit.dequeueLong();
+
+            positions.setTo(BlockPos.getX(current), BlockPos.getY(current), BlockPos.getZ(current));
+
+            for (int n = 0; n < positions.size(); ++n) {
+
+                final long hash = positions.getHash(n);
+
+                if (this.hasPartAt(hash) && visited.add(hash)) {
+
+                    if (neighbors.contains(hash) && 0 == --neighborsToFind) {
+                        return true;
+                    }
+
+                    toVisit.enqueue(hash);
                 }
             }
+        }
 
-            nearbyParts.clear();
+        return false;
+    }
 
-        } while (!partsToCheck.isEmpty());
+    /**
+     * Check if there is a part of this machine at the given position. The parts of a paused machine that are in
+     * unloaded chunks are still considered part of the machine.
+     *
+     * @param positionHash the position to check
+     * @return true if a part was found, false otherwise
+     */
+    private boolean hasPartAt(final long positionHash) {
+        return null != this._connectedParts.get(positionHash) ||
+                (null != this._unloadedParts && this._unloadedParts.containsKey(positionHash));
     }
 
     /**
@@ -1205,7 +1606,12 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
     protected ReferencePartTracker<Controller> getReferenceTracker() {
 
         if (this._reference.isInvalid()) {
-            this._reference.accept(this._connectedParts);
+
+            final IMultiblockPart<Controller> firstPart = this._partsBounds.getFirstValidPart();
+
+            if (null != firstPart) {
+                this._reference.accept(firstPart);
+            }
         }
 
         return this._reference;
@@ -1312,6 +1718,103 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         this._boundingBox = this._boundingBox.add(newPart.getWorldPosition());
         this.onPartAdded(newPart);
+        this.getRegistry().onPartAttached(this.castSelf(), newPart);
+    }
+
+    /**
+     * Controls which chunks are marked as unsaved when {@link #updateServer()} report a change in the machine state.
+     *
+     * The controller data is saved only by the save delegate part (see {@link ReferencePartTracker}) so by default only
+     * the chunk containing that part is marked. This is a change from the previous versions, that always marked all the
+     * chunks under the machine: override to return true if the update also change the state of other parts without
+     * marking their tile entities as changed.
+     *
+     * @return true to mark all the chunks under the machine, false to mark only the chunk of the save delegate part
+     */
+    protected boolean shouldMarkAllChunksUnsaved() {
+        return false;
+    }
+
+    /**
+     * Controls how often the chunks holding the data of this machine are marked as unsaved.
+     *
+     * The changes reported by {@link #updateServer()} during the interval are coalesced and the chunks are marked once
+     * the interval is over, even if the machine does not report other changes. The controller is not put to sleep
+     * while a marking is pending.
+     *
+     * @return the minimum number of ticks between two markings of the chunks. The default, 1, mark them on every tick
+     * with a change
+     */
+    protected int getChunksUnsavedInterval() {
+        return 1;
+    }
+
+    /**
+     * Mark the chunks holding the data of this machine as unsaved, or defer the marking to the end of the current
+     * interval (see {@link #getChunksUnsavedInterval()}).
+     * The chunks are looked up every time (only the ones that are loaded are marked) and chunks that are already unsaved
+     * are skipped.
+     */
+    private void markChunksUnsaved() {
+
+        final long now = this.getWorld().getGameTime();
+
+        if (now < this._nextChunksUnsavedTick) {
+
+            this._chunksUnsavedPending = true;
+            return;
+        }
+
+        this._chunksUnsavedPending = false;
+        this._nextChunksUnsavedTick = now + Math.max(1, this.getChunksUnsavedInterval());
+
+        if (this.shouldMarkAllChunksUnsaved()) {
+            this.markMachineChunksUnsaved();
+        } else {
+            this.markSaveDelegateChunkUnsaved();
+        }
+    }
+
+    private void markSaveDelegateChunkUnsaved() {
+
+        final IMultiblockPart<Controller> delegate = this.getReferenceTracker().get();
+
+        if (null != delegate) {
+
+            final BlockPos position = delegate.getWorldPosition();
+
+            markChunkUnsaved(this.getWorld(), WorldHelper.getChunkXFromBlock(position),
+                    WorldHelper.getChunkZFromBlock(position));
+        }
+    }
+
+    private void markMachineChunksUnsaved() {
+
+        if (this._boundingBox.isEmpty()) {
+            return;
+        }
+
+        final World myWorld = this.getWorld();
+        final BlockPos min = this._boundingBox.getMin();
+        final BlockPos max = this._boundingBox.getMax();
+        final int maxChunkX = WorldHelper.getChunkXFromBlock(max);
+        final int maxChunkZ = WorldHelper.getChunkZFromBlock(max);
+
+        for (int x = WorldHelper.getChunkXFromBlock(min); x <= maxChunkX; ++x) {
+            for (int z = WorldHelper.getChunkZFromBlock(min); z <= maxChunkZ; ++z) {
+                markChunkUnsaved(myWorld, x, z);
+            }
+        }
+    }
+
+    private static void markChunkUnsaved(final World world, final int chunkX, final int chunkZ) {
+
+        // only look at loaded chunks: no chunk is loaded (or generated) to be marked
+        final Chunk chunk = world.getChunkSource().getChunkNow(chunkX, chunkZ);
+
+        if (null != chunk && !chunk.isUnsaved()) {
+            chunk.markUnsaved();
+        }
     }
 
     /**
@@ -1326,7 +1829,9 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         this._connectedParts.forEach(part -> part.onPreMachineAssembled(mySelf));
 
         this._assemblyState.setAssembled();
+        this._structureChanged = false;
         this.clearDataUpdatedSubscribers();
+        this.wakeUp();
 
         if (currentlyPaused) {
             this.onMachineRestored();
@@ -1335,6 +1840,7 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         }
 
         this._connectedParts.forEach(part -> part.onPostMachineAssembled(mySelf));
+        this.requestClientValidation();
 //        this.onUpdateBlockState();
     }
 
@@ -1353,6 +1859,7 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         this.onMachineDisassembled();
 
         this._connectedParts.forEach(IMultiblockPart::onPostMachineBroken);
+        this.requestClientValidation();
 //        this.onUpdateBlockState();
     }
 
@@ -1367,6 +1874,13 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         part.onDetached(this.castSelf());
         this.onPartRemoved(part);
         part.forfeitMultiblockSaveDelegate();
+        this.getRegistry().onPartDetached(this.castSelf(), part);
+
+        if (part == this._connectedParts.get(part.getWorldPositionHash())) {
+
+            this._partsBounds.remove(part);
+            this._structureDigest ^= structureDigestOf(part);
+        }
 
         this._boundingBox = CuboidBoundingBox.EMPTY;
 
@@ -1376,6 +1890,33 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
         }
 
         this._shouldCheckForDisconnections = true;
+        this._structureChanged = true;
+    }
+
+    /**
+     * Callback whenever a part is detached from a paused controller because its chunk is being unloaded.
+     * The part is expected to come back: the structure of the machine did not change, so there is no need to check
+     * for disconnections, and the part keep its multiblock save delegate status.
+     * @param part The part being unloaded.
+     */
+    private void onUnloadPart(final IMultiblockPart<Controller> part) {
+
+        part.onDetached(this.castSelf());
+        this.onPartRemoved(part);
+        this.getRegistry().onPartDetached(this.castSelf(), part);
+
+        if (part == this._connectedParts.get(part.getWorldPositionHash())) {
+
+            this._partsBounds.remove(part);
+            this._structureDigest ^= structureDigestOf(part);
+        }
+
+        this._boundingBox = CuboidBoundingBox.EMPTY;
+
+        // access the reference tracker directly to avoid updating it every time a part is detached
+        if (this._reference.test(part)) {
+            this._reference.invalidate();
+        }
     }
 
     /**
@@ -1393,6 +1934,8 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
         // abandon the current set of connected parts - avoid the need to copy it in assimilateController()
         this._connectedParts = this.createPartStorage();
+        this._partsBounds = new PartsBoundsTracker<>();
+        this._structureDigest = 0;
     }
 
     /**
@@ -1420,26 +1963,86 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
     /*
      * Marks the whole multiblock for a render update on the client. On the server, this does nothing
+     *
+     * Only the chunk sections containing at least one part are rendered again, not all the sections touched by the
+     * bounding box of the machine. Use {@link #markPartsForRenderUpdate} if only some parts changed
      */
 	protected void markMultiblockForRenderUpdate() {
-	    this.forBoundingBoxCoordinates(WorldHelper::markBlockRangeForRenderUpdate);
+	    this.markPartsForRenderUpdate(this._connectedParts);
 	}
 
     /*
-	protected void requestClientValidation() {
-		this._clientValidationRequested = true;
-	}
+     * Marks the given parts, and the blocks around them, for a render update on the client. On the server, this does nothing
+     *
+     * Requests for the same chunk section are coalesced and the section is rendered again only once
+     */
+    protected void markPartsForRenderUpdate(final Iterable<IMultiblockPart<Controller>> parts) {
+        this.callOnLogicalClient(() -> parts.forEach(part -> WorldHelper.markBlockRangeForRenderUpdate(part.getWorldPosition(),
+                part.getWorldPosition())));
+    }
 
-	protected boolean isClientValidationRequested() {
-		return this._clientValidationRequested;
-	}
+    /**
+     * Ask the clients tracking this machine to check if their copy of the structure match the one on the server.
+     * Only the structure digest and the bounding box are sent: the positions of all the parts are sent only to the
+     * clients that report a mismatch. On the client, this does nothing
+     */
+    protected void requestClientValidation() {
+        this.callOnLogicalServer(() -> this.getReferenceCoord()
+                .ifPresent(position -> Network.sendMultiblockValidationRequest(this, position)));
+    }
+
+    /**
+     * Check again a validation request from the server (see {@link #processClientValidationRequest}) now that the
+     * client processed its own changes to the machine, and ask the server for the positions of its parts if the
+     * structures still don't match
+     */
+    private void checkPendingClientValidationRequest() {
 
-	void beginClientValidation(final ServerPlayerEntity player) {
+        this._serverRequestPending = false;
+        this._serverStateKnown = this.matchServerStructure();
 
-		this._clientValidationRequested = false;
-		PacketHandler.INSTANCE.sendTo(new ClientMultiblockValidationRequest(this), player);
-	}
-	*/
+        if (!this._serverStateKnown) {
+            Network.sendMultiblockValidationMismatch(this._serverReferencePosition);
+        }
+    }
+
+    private boolean matchServerStructure() {
+        return this._serverDigest == this._structureDigest && this._serverPartsCount == this._connectedParts.size() &&
+                this._serverBoundingBox.equals(this.getBoundingBox());
+    }
+
+    /**
+     * @return true if this is a client-side machine that received the assembly state of the server machine, and
+     * its structure still match the one of the server machine. false otherwise
+     */
+    private boolean hasServerAssemblyState() {
+        return this._serverStateKnown && this.calledByLogicalClient() && this._serverDigest == this._structureDigest;
+    }
+
+    /**
+     * Mix the position and the type of a part in a value suitable to be combined in a structure digest
+     *
+     * @param part the part
+     * @return the mixed value
+     */
+    private static long structureDigestOf(final IMultiblockPart<?> part) {
+
+        // SplitMix64 finalizer
+        long hash = part.getWorldPositionHash() * 0x9E3779B97F4A7C15L + part.getClass().getName().hashCode();
+
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private boolean profiledUpdateServer() {
+
+        final long startTime = ControllerProfile.start();
+        final boolean changed = this.updateServer();
+
+        this._profile.record(ControllerProfile.Section.Update, startTime);
+        return changed;
+    }
 
     @SuppressWarnings("unchecked")
     private IMultiblockRegistry<Controller> getRegistry() {
@@ -1470,11 +2073,29 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
      */
     protected IPartStorage<Controller> _detachedParts;
 
+    /**
+     * The positions, and the types, of the parts that were detached from this paused controller when their chunk
+     * was unloaded
+     */
+    @Nullable
+    private Long2ObjectMap<Class<?>> _unloadedParts;
+
+    /**
+     * Set when an unloaded part didn't come back with its chunk: the whole machine must be visited again to look
+     * for disconnections
+     */
+    private boolean _unloadedPartsForgotten;
+
     /**
      * Machine state
      */
     private final AssemblyState _assemblyState;
 
+    /**
+     * Timings of the update, validation, disconnections check and merge operations
+     */
+    private final ControllerProfile _profile;
+
     /**
      * The World associated to this controller
      */
@@ -1490,11 +2111,22 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
 
     private CuboidBoundingBox _boundingBox;
 
+    /**
+     * The bounding box and the lowest part of this machine, updated when a part is attached or detached
+     */
+    private PartsBoundsTracker<Controller> _partsBounds;
+
     /**
      * Set to true whenever a part is removed from this controller.
      */
     protected boolean _shouldCheckForDisconnections;
 
+    /**
+     * Set to true whenever a part is attached to or removed from this controller (but not when a part is unloaded)
+     * and reset when the machine is assembled.
+     */
+    private boolean _structureChanged;
+
     /**
      * Set whenever we validate the multiblock
      */
@@ -1504,5 +2136,43 @@ public abstract class AbstractMultiblockController<Controller extends AbstractMu
     private boolean _requestDataUpdateNotification;
     private boolean _needBuildingBoxRebuild;
 
+    /**
+     * The coalescing of the chunks markings (see {@link #getChunksUnsavedInterval()})
+     */
+    private long _nextChunksUnsavedTick;
+    private boolean _chunksUnsavedPending;
+
+    /**
+     * Order-independent digest of the parts of this machine (see {@link #getStructureDigest()})
+     */
+    private long _structureDigest;
+
+    /**
+     * The assembly state and the structure last received from the server machine (on the client only)
+     */
+    private boolean _serverStateKnown;
+    private boolean _serverRequestPending;
+    private boolean _serverAssembled;
+    private long _serverDigest;
+    private int _serverPartsCount;
+    private CuboidBoundingBox _serverBoundingBox;
+    private BlockPos _serverReferencePosition;
+
+    /**
+     * When each player will get its next validation response (on the server only)
+     */
+    @Nullable
+    private Object2LongMap<UUID> _validationResponsesTimes;
+
+    /**
+     * The minimum number of ticks between two validation responses sent to the same player
+     */
+    private static final int VALIDATION_RESPONSE_INTERVAL = 100;
+
+    /**
+     * The maximum number of parts visited when checking if detaching some parts split the machine
+     */
+    private static final int DISCONNECTION_CHECK_BUDGET = 16 * 1024;
+
     //endregion
 }
@@ -0,0 +1,302 @@
+/*
+ *
+ * ConnectedPartsVisitor.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Mark as visited the parts of a multiblock that can be reached from a starting part moving from a part to its neighbors.
+ *
+ * The parts are looked up in a main storage and, optionally, in a second one (the parts of a paused machine that are
+ * in unloaded chunks still connect the loaded ones). The parts that were already visited are not visited again
+ */
+final class ConnectedPartsVisitor {
+
+    /**
+     * Visit the parts connected to the given part with a breadth-first search on the calling thread
+     *
+     * @param firstPart the starting part
+     * @param parts the parts to visit
+     * @param morePositions the positions of parts that are not loaded, if any: they are not visited but they still
+     *                      connect the parts next to them
+     * @param positions the neighboring positions to look for parts in
+     */
+    static <Controller extends IMultiblockController<Controller>> void visit(final IMultiblockPart<Controller> firstPart,
+                                                                             final IPartStorage<Controller> parts,
+                                                                             @Nullable final LongSet morePositions,
+                                                                             final NeighboringPositions positions) {
+
+        final ArrayDeque<IMultiblockPart<Controller>> partsToCheck = new ArrayDeque<>(1024);
+        final List<IMultiblockPart<Controller>> nearbyParts = new ReferenceArrayList<>(positions.size());
+        final boolean hasMorePositions = null != morePositions && !morePositions.isEmpty();
+        final LongArrayFIFOQueue positionsToCheck = hasMorePositions ? new LongArrayFIFOQueue() : null;
+        final LongSet visitedPositions = hasMorePositions ? new LongOpenHashSet(morePositions.size()) : null;
+
+        partsToCheck.add(firstPart);
+
+        do {
+
+            if (partsToCheck.isEmpty()) {
+
+                final long hash = positionsToCheck.dequeueLong();
+
+                positions.setTo(BlockPos.getX(hash), BlockPos.getY(hash), BlockPos.getZ(hash));
+
+            } else {
+
+                final IMultiblockPart<Controller> part = partsToCheck.removeFirst();
+
+                part.setVisited();
+                positions.setTo(part.getWorldPosition());
+            }
+
+            parts.get(positions, nearbyParts);
+
+            for (final IMultiblockPart<Controller> nearbyPart : nearbyParts) {
+
+                if (nearbyPart.isNotVisited()) {
+
+                    nearbyPart.setVisited();
+                    partsToCheck.add(nearbyPart);
+                }
+            }
+
+            nearbyParts.clear();
+
+            if (hasMorePositions) {
+                for (int n = 0; n < positions.size(); ++n) {
+
+                    final long hash = positions.getHash(n);
+
+                    if (morePositions.contains(hash) && visitedPositions.add(hash)) {
+                        positionsToCheck.enqueue(hash);
+                    }
+                }
+            }
+
+        } while (!partsToCheck.isEmpty() || (hasMorePositions && !positionsToCheck.isEmpty()));
+    }
+
+    /**
+     * Visit the parts connected to the given part with a level-by-level breadth-first search, visiting each level
+     * in parallel on the common {@link ForkJoinPool}.
+     *
+     * Every part is given a slot and the visited parts are tracked in an atomic bitset indexed by slot, so every part
+     * is claimed by exactly one worker and the set of visited parts does not depend on the order in which the
+     * workers run. The parts are marked as visited, on the calling thread, when the search is over
+     *
+     * @param firstPart the starting part
+     * @param parts the parts to visit
+     * @param morePositions the positions of parts that are not loaded, if any: they are not visited but they still
+     *                      connect the parts next to them
+     * @param positionsFactory a factory for the neighboring positions to look for parts in
+     * @return true if the parts were visited, false if the starting part is not in the given storage
+     */
+    static <Controller extends IMultiblockController<Controller>> boolean visitInParallel(final IMultiblockPart<Controller> firstPart,
+                                                                                          final IPartStorage<Controller> parts,
+                                                                                          @Nullable final LongSet morePositions,
+                                                                                          final Supplier<NeighboringPositions> positionsFactory) {
+
+        // the loaded parts take the first slots, the positions of the unloaded ones follow
+
+        final int loadedCount = parts.size();
+        final int partsCount = loadedCount + (null != morePositions ? morePositions.size() : 0);
+        @SuppressWarnings("unchecked")
+        final IMultiblockPart<Controller>[] slotParts = (IMultiblockPart<Controller>[])new IMultiblockPart[loadedCount];
+        final long[] slotPositions = new long[partsCount];
+        final Long2IntOpenHashMap slots = new Long2IntOpenHashMap(partsCount);
+        int slot = 0;
+
+        slots.defaultReturnValue(-1);
+
+        for (final IMultiblockPart<Controller> part : parts) {
+
+            slotParts[slot] = part;
+            slotPositions[slot] = part.getWorldPositionHash();
+            slots.put(slotPositions[slot], slot++);
+        }
+
+        if (null != morePositions) {
+            for (final LongIterator iterator = morePositions.iterator(); iterator.hasNext(); ) {
+
+                slotPositions[slot] = iterator.nextLong();
+                slots.put(slotPositions[slot], slot++);
+            }
+        }
+
+        final int firstSlot = slots.get(firstPart.getWorldPositionHash());
+
+        if (-1 == firstSlot || firstSlot >= loadedCount) {
+            return false;
+        }
+
+        final AtomicLongArray visited = new AtomicLongArray((partsCount + 63) >>> 6);
+
+        // the parts that were already visited are claimed before the search starts
+
+        for (slot = 0; slot < loadedCount; ++slot) {
+            if (!slotParts[slot].isNotVisited()) {
+                markVisited(visited, slot);
+            }
+        }
+
+        // the search always start from the first part, as the sequential one does
+        markVisited(visited, firstSlot);
+
+        IntArrayList frontier = IntArrayList.wrap(new int[] {firstSlot});
+        final IntArrayList reached = new IntArrayList(partsCount);
+
+        while (!frontier.isEmpty()) {
+
+            reached.addAll(frontier);
+            frontier = ForkJoinPool.commonPool().invoke(new VisitTask(slotPositions, slots, visited, frontier,
+                    0, frontier.size(), positionsFactory));
+        }
+
+        for (int idx = 0; idx < reached.size(); ++idx) {
+
+            final int reachedSlot = reached.getInt(idx);
+
+            if (reachedSlot < loadedCount) {
+                slotParts[reachedSlot].setVisited();
+            }
+        }
+
+        return true;
+    }
+
+    //region internals
+
+    /**
+     * Mark a slot as visited
+     *
+     * @return true if the slot was not visited before, false otherwise
+     */
+    private static boolean markVisited(final AtomicLongArray visited, final int slot) {
+
+        final int index = slot >>> 6;
+        final long mask = 1L << slot;
+        long current;
+
+        do {
+
+            current = visited.get(index);
+
+            if (0 != (current & mask)) {
+                return false;
+            }
+
+        } while (!visited.compareAndSet(index, current, current | mask));
+
+        return true;
+    }
+
+    /**
+     * Visit a slice of the current level of a parallel BFS and return the parts to visit in the next level.
+     * Big slices are split in half and visited in parallel.
+     */
+    private static final class VisitTask extends RecursiveTask<IntArrayList> {
+
+        VisitTask(final long[] positions, final Long2IntMap slots, final AtomicLongArray visited,
+                  final IntArrayList frontier, final int from, final int to,
+                  final Supplier<NeighboringPositions> positionsFactory) {
+
+            this._positions = positions;
+            this._slots = slots;
+            this._visited = visited;
+            this._frontier = frontier;
+            this._from = from;
+            this._to = to;
+            this._positionsFactory = positionsFactory;
+        }
+
+        @Override
+        protected IntArrayList compute() {
+
+            if (this._to - this._from > SLICE_SIZE) {
+
+                final int middle = (this._from + this._to) >>> 1;
+                final VisitTask upper = new VisitTask(this._positions, this._slots, this._visited,
+                        this._frontier, middle, this._to, this._positionsFactory);
+
+                upper.fork();
+
+                final IntArrayList next = new VisitTask(this._positions, this._slots, this._visited,
+                        this._frontier, this._from, middle, this._positionsFactory).compute();
+
+                next.addAll(upper.join());
+                return next;
+            }
+
+            final NeighboringPositions positions = this._positionsFactory.get();
+            final IntArrayList next = new IntArrayList(this._to - this._from);
+
+            for (int idx = this._from; idx < this._to; ++idx) {
+
+                final long hash = this._positions[this._frontier.getInt(idx)];
+
+                positions.setTo(BlockPos.getX(hash), BlockPos.getY(hash), BlockPos.getZ(hash));
+
+                for (int n = 0; n < positions.size(); ++n) {
+
+                    final int neighborSlot = this._slots.get(positions.getHash(n));
+
+                    if (-1 != neighborSlot && markVisited(this._visited, neighborSlot)) {
+                        next.add(neighborSlot);
+                    }
+                }
+            }
+
+            return next;
+        }
+
+        private static final int SLICE_SIZE = 2048;
+
+        private final long[] _positions;
+        private final Long2IntMap _slots;
+        private final AtomicLongArray _visited;
+        private final IntArrayList _frontier;
+        private final int _from;
+        private final int _to;
+        private final Supplier<NeighboringPositions> _positionsFactory;
+    }
+
+    private ConnectedPartsVisitor() {
+    }
+
+    //endregion
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ * ControllerProfile.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import java.util.Arrays;
+
+/**
+ * Timings of the most expensive operations of a multiblock controller.
+ *
+ * For each {@link Section} the durations of the last {@link #WINDOW_SIZE} runs are kept in a ring buffer so that
+ * recording a sample is cheap and the percentiles always describe the recent behaviour of the controller.
+ * Samples must be recorded from the thread that own the controller world.
+ */
+public final class ControllerProfile {
+
+    public enum Section {
+
+        /**
+         * The server-side game logic update
+         */
+        Update,
+
+        /**
+         * The check for the structure of the machine
+         */
+        Validation,
+
+        /**
+         * The search for parts that are no longer connected to the machine
+         */
+        Disconnections,
+
+        /**
+         * The assimilation of another controller
+         */
+        Merge,
+    }
+
+    public static final int WINDOW_SIZE = 128;
+
+    public ControllerProfile() {
+
+        final int count = Section.values().length;
+
+        this._samples = new long[count][WINDOW_SIZE];
+        this._counts = new long[count];
+    }
+
+    /**
+     * @return the start time of a new sample, to be passed to {@link #record(Section, long)}
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the duration of a run of a section
+     *
+     * @param section the section
+     * @param startTime the value returned by {@link #start()} at the beginning of the run
+     */
+    public void record(final Section section, final long startTime) {
+
+        final int index = section.ordinal();
+        final long count = this._counts[index]++;
+
+        this._samples[index][(int)(count & (WINDOW_SIZE - 1))] = System.nanoTime() - startTime;
+    }
+
+    /**
+     * @param section the section
+     * @return the number of runs recorded for the section since the controller was created
+     */
+    public long getCount(final Section section) {
+        return this._counts[section.ordinal()];
+    }
+
+    /**
+     * Compute a percentile of the recent run durations of a section
+     *
+     * @param section the section
+     * @param percentile the percentile to compute, between 0 and 100
+     * @return the duration, in nanoseconds, or 0 if no runs were recorded
+     */
+    public long getPercentile(final Section section, final double percentile) {
+
+        final int index = section.ordinal();
+        final int size = (int)Math.min(this._counts[index], WINDOW_SIZE);
+
+        if (0 == size) {
+            return 0;
+        }
+
+        final long[] sorted = Arrays.copyOf(this._samples[index], size);
+
+        final int rank = (int)Math.ceil(percentile / 100.0 * size) - 1;
+
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, Math.min(size - 1, rank))];
+    }
+
+    /**
+     * Forget all the recorded samples
+     */
+    public void reset() {
+
+        Arrays.fill(this._counts, 0);
+
+        for (final long[] samples : this._samples) {
+            Arrays.fill(samples, 0);
+        }
+    }
+
+    //region internals
+
+    private final long[][] _samples;
+    private final long[] _counts;
+
+    //endregion
+}
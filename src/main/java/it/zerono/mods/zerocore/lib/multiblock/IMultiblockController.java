@@ -137,6 +137,25 @@ public interface IMultiblockController<Controller extends IMultiblockController<
      */
     void detachPart(IMultiblockPart<Controller> part, boolean chunkUnloading);
 
+    /**
+     * Attach again a part that was detached from this machine when its chunk was unloaded.
+     *
+     * @param part The reloaded part.
+     * @return True if the part was reattached, false if this machine was not waiting for it.
+     */
+    default boolean reattachUnloadedPart(IMultiblockPart<Controller> part) {
+        return false;
+    }
+
+    /**
+     * Stop waiting for a part that was detached from this machine when its chunk was unloaded.
+     * Called when the chunk was loaded again but the part didn't come back.
+     *
+     * @param positionHash The position of the part.
+     */
+    default void forgetUnloadedPart(long positionHash) {
+    }
+
     /**
      * Detach all parts. Return a set of all parts which still
      * have a valid tile entity. Chunk-safe.
@@ -232,6 +251,23 @@ public interface IMultiblockController<Controller extends IMultiblockController<
      */
     void updateMultiblockEntity();
 
+    /**
+     * Value returned by {@link #getNextUpdateDelay()} to stop updating the controller until something wake it up
+     */
+    int UPDATE_SLEEP = 0;
+
+    /**
+     * Called by the registry after each call to {@link #updateMultiblockEntity()} to know when the next one should happen.
+     * A sleeping controller is woken up when one of its parts is attached or detached, when it's marked as dirty or
+     * when it ask to do so
+     *
+     * @return the number of ticks to wait before the next update (1 to be updated every tick)
+     * or {@link #UPDATE_SLEEP} to sleep until woken up
+     */
+    default int getNextUpdateDelay() {
+        return 1;
+    }
+
     //endregion
     //region Miscellanea
 
@@ -41,6 +41,11 @@
 
 package it.zerono.mods.zerocore.lib.multiblock;
 
+import net.minecraft.world.World;
+
+import java.util.Collections;
+import java.util.Set;
+
 public interface IMultiblockRegistry<Controller extends IMultiblockController<Controller>> {
 
     /**
@@ -71,4 +76,67 @@ public interface IMultiblockRegistry<Controller extends IMultiblockController<Co
      * @param controller The dirty controller
      */
     void addDirtyController(Controller controller);
+
+    /**
+     * Call to inform the registry that a part was attached to (or assimilated by) a controller.
+     * Used to keep the positions index of the registry up to date.
+     *
+     * @param controller The controller the part was attached to
+     * @param part The part that was attached
+     */
+    default void onPartAttached(Controller controller, IMultiblockPart<Controller> part) {
+    }
+
+    /**
+     * Call to inform the registry that a part was detached from a controller.
+     * Used to keep the positions index of the registry up to date.
+     *
+     * @param controller The controller the part was detached from
+     * @param part The part that was detached
+     */
+    default void onPartDetached(Controller controller, IMultiblockPart<Controller> part) {
+    }
+
+    /**
+     * Call to inform the registry that a part was detached from a paused controller because its chunk was unloaded.
+     * When the part is loaded again it will be reattached to the same controller.
+     * By default the part is handled like any other detached part.
+     *
+     * @param controller The controller the part was detached from
+     * @param part The part that was unloaded
+     */
+    default void onPartUnloaded(Controller controller, IMultiblockPart<Controller> part) {
+        this.onPartDetached(controller, part);
+    }
+
+    /**
+     * Call to schedule an update for a controller that is sleeping or that asked to be updated at a later tick.
+     * The controller will be updated on the next tick.
+     *
+     * @param controller The controller to wake up
+     */
+    default void wakeUp(Controller controller) {
+    }
+
+    /**
+     * Get how often a controller is updated.
+     *
+     * @param controller The controller
+     * @return The fraction of the world ticks in which the controller was updated since it was registered,
+     * or 0 if the controller is unknown
+     */
+    default double getUpdateRate(Controller controller) {
+        return 0;
+    }
+
+    /**
+     * Get the controllers that are active in a world.
+     * Use this only if you know what you're doing. You should rarely need to iterate over all controllers in a world!
+     *
+     * @param world The world
+     * @return An (unmodifiable) set of the controllers active in the world, or an empty set if the world is not tracked
+     */
+    default Set<Controller> getControllers(World world) {
+        return Collections.emptySet();
+    }
 }
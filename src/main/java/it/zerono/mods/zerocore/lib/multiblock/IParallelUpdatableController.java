@@ -0,0 +1,39 @@
+/*
+ *
+ * IParallelUpdatableController.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+/**
+ * Implement on a IMultiblockController to split its server-side update in two phases.
+ *
+ * In each tick the registry first calls {@link #simulateUpdate()} on the assembled controllers of a world that
+ * implement this interface and are going to be updated in that tick, running them in parallel on a dedicated
+ * ForkJoinPool. Then, on the server thread, it calls {@link IMultiblockController#updateMultiblockEntity()} on every
+ * controller, sorted by their natural order, to apply the results of the simulation to the world.
+ */
+public interface IParallelUpdatableController {
+
+    /**
+     * Run the part of the update that only read and change the internal state of this controller.
+     *
+     * Called from a worker thread, concurrently with the other controllers of the same world: it must not access the
+     * world, the parts tile entities, capabilities from other blocks, the network or any other controller.
+     * Anything that has side effects outside of the controller must be done in the following call to updateServer().
+     */
+    void simulateUpdate();
+}
@@ -0,0 +1,180 @@
+/*
+ *
+ * PartsBoundsTracker.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.unimi.dsi.fastutil.ints.Int2IntAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2IntSortedMap;
+import it.unimi.dsi.fastutil.objects.ObjectAVLTreeSet;
+import it.unimi.dsi.fastutil.objects.ObjectSortedSet;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keep track of the bounding box of a set of parts and of the part with the lowest position (see {@link BlockPos#compareTo})
+ * while parts are added and removed from the set.
+ *
+ * The number of parts at each coordinate is counted separately for each axis, so all the operations
+ * are O(log n) and the bounding box and the lowest part are always available without visiting all the parts.
+ */
+public class PartsBoundsTracker<Controller extends IMultiblockController<Controller>> {
+
+    public PartsBoundsTracker() {
+
+        this._parts = new ObjectAVLTreeSet<>((part1, part2) -> part1.getWorldPosition().compareTo(part2.getWorldPosition()));
+        this._x = createCounters();
+        this._y = createCounters();
+        this._z = createCounters();
+    }
+
+    public boolean isEmpty() {
+        return this._parts.isEmpty();
+    }
+
+    public int size() {
+        return this._parts.size();
+    }
+
+    /**
+     * Add a part to the tracked set, replacing any other part at the same position
+     *
+     * @param part the part to add
+     */
+    public void add(final IMultiblockPart<Controller> part) {
+
+        if (this._parts.add(part)) {
+
+            final BlockPos position = part.getWorldPosition();
+
+            increment(this._x, position.getX());
+            increment(this._y, position.getY());
+            increment(this._z, position.getZ());
+
+        } else {
+
+            // replace the part at the same position, the bounds are not changed
+            this._parts.remove(part);
+            this._parts.add(part);
+        }
+    }
+
+    /**
+     * Remove the part at the same position of the given part from the tracked set
+     *
+     * @param part the part to remove
+     */
+    public void remove(final IMultiblockPart<Controller> part) {
+
+        if (this._parts.remove(part)) {
+
+            final BlockPos position = part.getWorldPosition();
+
+            decrement(this._x, position.getX());
+            decrement(this._y, position.getY());
+            decrement(this._z, position.getZ());
+        }
+    }
+
+    public void clear() {
+
+        this._parts.clear();
+        this._x.clear();
+        this._y.clear();
+        this._z.clear();
+    }
+
+    /**
+     * Add the parts of the smaller of the two trackers to the bigger one
+     *
+     * @param other the other tracker. Do not use it after this call
+     * @return the tracker holding the parts of both trackers
+     */
+    public PartsBoundsTracker<Controller> merge(final PartsBoundsTracker<Controller> other) {
+
+        final PartsBoundsTracker<Controller> target = this.size() >= other.size() ? this : other;
+        final PartsBoundsTracker<Controller> source = target == this ? other : this;
+
+        for (final IMultiblockPart<Controller> part : source._parts) {
+            target.add(part);
+        }
+
+        return target;
+    }
+
+    /**
+     * @return the bounding box of the tracked parts
+     */
+    public CuboidBoundingBox boundingBox() {
+
+        if (this.isEmpty()) {
+            return CuboidBoundingBox.EMPTY;
+        }
+
+        return new CuboidBoundingBox(this._x.firstIntKey(), this._y.firstIntKey(), this._z.firstIntKey(),
+                this._x.lastIntKey(), this._y.lastIntKey(), this._z.lastIntKey());
+    }
+
+    /**
+     * @return the valid part with the lowest position, if any
+     */
+    @Nullable
+    public IMultiblockPart<Controller> getFirstValidPart() {
+
+        for (final IMultiblockPart<Controller> part : this._parts) {
+            if (!part.isPartInvalid()) {
+                return part;
+            }
+        }
+
+        return null;
+    }
+
+    //region internals
+
+    private static Int2IntSortedMap createCounters() {
+
+        final Int2IntSortedMap counters = new Int2IntAVLTreeMap();
+
+        counters.defaultReturnValue(0);
+        return counters;
+    }
+
+    private static void increment(final Int2IntSortedMap counters, final int coordinate) {
+        counters.put(coordinate, counters.get(coordinate) + 1);
+    }
+
+    private static void decrement(final Int2IntSortedMap counters, final int coordinate) {
+
+        final int count = counters.get(coordinate);
+
+        if (count > 1) {
+            counters.put(coordinate, count - 1);
+        } else {
+            counters.remove(coordinate);
+        }
+    }
+
+    private final ObjectSortedSet<IMultiblockPart<Controller>> _parts;
+    private final Int2IntSortedMap _x;
+    private final Int2IntSortedMap _y;
+    private final Int2IntSortedMap _z;
+
+    //endregion
+}
@@ -41,23 +41,51 @@
 
 package it.zerono.mods.zerocore.lib.multiblock.cuboid;
 
-import it.zerono.mods.zerocore.lib.block.BlockFacings;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
 import it.zerono.mods.zerocore.lib.multiblock.AbstractMultiblockController;
 import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
 import it.zerono.mods.zerocore.lib.multiblock.validation.IMultiblockValidator;
 import it.zerono.mods.zerocore.lib.multiblock.validation.ValidationError;
+import it.zerono.mods.zerocore.lib.world.BlockStateSnapshot;
+import it.zerono.mods.zerocore.lib.world.ChunkCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.util.Constants;
 
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
 public abstract class AbstractCuboidMultiblockController<Controller extends AbstractCuboidMultiblockController<Controller>>
         extends AbstractMultiblockController<Controller> {
 
 	//region AbstractMultiblockController
 
+    /**
+     * Assign to each part its position in the machine without validating the blocks of the machine
+     */
+    @Override
+    protected void onServerAssemblyState() {
+
+        final CuboidBoundingBox bb = this.getBoundingBox();
+
+        if (bb.isEmpty()) {
+            return;
+        }
+
+        this.updatePartsPositions(new ValidationPass(bb));
+    }
+
     @Override
     protected boolean isMachineWhole(final IMultiblockValidator validatorCallback) {
 
@@ -69,7 +97,6 @@ public abstract class AbstractCuboidMultiblockController<Controller extends Abst
             return false;
         }
 
-        final World world = this.getWorld();
         final BlockPos boundingBoxMin = bb.getMin();
         final BlockPos boundingBoxMax = bb.getMax();
         final int minX = boundingBoxMin.getX();
@@ -85,6 +112,8 @@ public abstract class AbstractCuboidMultiblockController<Controller extends Abst
             return false;
         }
 
+        final ValidationPass pass = new ValidationPass(bb);
+
         // if we have some detached parts let's do a preemptive check of what's in their place now
 
         if (null != this._detachedParts && !this._detachedParts.isEmpty()) {
@@ -92,296 +121,728 @@ public abstract class AbstractCuboidMultiblockController<Controller extends Abst
             for (final IMultiblockPart<Controller> part : this._detachedParts) {
 
                 final BlockPos partLocation = part.getWorldPosition();
-                final int x = partLocation.getX();
-                final int y = partLocation.getY();
-                final int z = partLocation.getZ();
-                int extremes = 0, errorIndex;
-                boolean isValid;
-
-                if (x == minX) {
-                    ++extremes;
-                }
+                final int classCode = pass.classify(partLocation.getX(), partLocation.getY(), partLocation.getZ());
 
-                if (x == maxX) {
-                    ++extremes;
+                if (CuboidValidationPlan.OUTSIDE == classCode) {
+                    // the machine shrunk and the part is no longer inside it: nothing to check here
+                    continue;
                 }
 
-                if (y == minY) {
-                    ++extremes;
-                }
+                final CuboidValidationPlan.PositionClass positionClass = CuboidValidationPlan.positionClassOf(classCode);
 
-                if (y == maxY) {
-                    ++extremes;
-                }
+                if (!this.isBlockGoodFor(pass, positionClass, partLocation, validatorCallback)) {
+
+                    // report error and quit
 
-                if (z == minZ) {
-                    ++extremes;
+                    if (validatorCallback.isLastErrorEmpty()) {
+                        validatorCallback.setLastError(partLocation, positionClass.getErrorKey());
+                    }
+
+                    return false;
                 }
+            }
+
+            this._detachedParts.clear();
+        }
+
+        final BlockPos.Mutable partLocation = new BlockPos.Mutable();
+
+        if (this.isIncrementalValidationEnabled()) {
+            return this.isMachineWholeIncremental(bb, pass, partLocation, validatorCallback);
+        }
+
+        final Optional<BlockStateSnapshot> snapshot = this.getParallelValidationSnapshot(bb);
 
-                if (z == maxZ) {
-                    ++extremes;
+        if (snapshot.isPresent()) {
+            return this.isMachineWholeParallel(pass.withSnapshot(snapshot.get()), bb, validatorCallback);
+        }
+
+        final ValidationPass serialPass = pass.withCachedBlockStates(bb);
+
+        for (int x = minX; x <= maxX; ++x) {
+            for (int y = minY; y <= maxY; ++y) {
+                for (int z = minZ; z <= maxZ; ++z) {
+                    if (!this.isBlockValid(serialPass, partLocation, x, y, z, true, validatorCallback)) {
+                        return false;
+                    }
                 }
+            }
+        }
 
-                if (extremes >= 2) {
+        return true;
+    }
 
-                    errorIndex = 0;
-                    isValid = this.isBlockGoodForFrame(world, x, y, z, validatorCallback);
+    /**
+     * Attach a new part to this machine.
+     *
+     * @param part The part to add.
+     */
+    @Override
+    public void attachPart(final IMultiblockPart<Controller> part) {
 
-                } else if (1 == extremes) {
+        super.attachPart(part);
+        this.markBlockForValidation(part.getWorldPosition());
+    }
 
-                    if (y == maxY) {
+    /**
+     * Call to detach a block from this machine. Generally, this should be called
+     * when the tile entity is being released, e.g. on block destruction.
+     *
+     * @param part           The part to detach from this machine.
+     * @param chunkUnloading Is this entity detaching due to the chunk unloading? If true, the multiblock will be paused instead of broken.
+     */
+    @Override
+    public void detachPart(final IMultiblockPart<Controller> part, final boolean chunkUnloading) {
 
-                        errorIndex = 1;
-                        isValid = this.isBlockGoodForTop(world, x, y, z, validatorCallback);
+        super.detachPart(part, chunkUnloading);
+        this.markBlockForValidation(part.getWorldPosition());
+    }
 
-                    } else if (y == minY) {
+    /**
+     * Detach all parts. Return a collection of all parts which still
+     * have a valid tile entity. Chunk-safe.
+     *
+     * @return A collection of all parts which still have a valid tile entity.
+     */
+    @Override
+    public IPartStorage<Controller> detachAll() {
 
-                        errorIndex = 2;
-                        isValid = this.isBlockGoodForBottom(world, x, y, z, validatorCallback);
+        this.invalidateValidationCache();
+        return super.detachAll();
+    }
 
-                    } else {
+    /**
+     * Assimilate another controller into this controller.
+     * Acquire all of the other controller's blocks and attach them
+     * to this one.
+     *
+     * @param other The controller to merge into this one.
+     */
+    @Override
+    public void assimilateController(final Controller other) {
 
-                        errorIndex = 3;
-                        isValid = this.isBlockGoodForSides(world, x, y, z, validatorCallback);
-                    }
+        super.assimilateController(other);
+        this.invalidateValidationCache();
+        other.invalidateValidationCache();
+    }
 
-                } else {
+    /**
+     * Called when this machine may need to check for blocks that are no
+     * longer physically connected to the reference coordinate.
+     */
+    @Override
+    public IPartStorage<Controller> checkForDisconnections() {
 
-                    errorIndex = 4;
-                    isValid = this.isBlockGoodForInterior(world, x, y, z, validatorCallback);
-                }
+        final IPartStorage<Controller> removedParts = super.checkForDisconnections();
 
-                if (!isValid) {
+        if (null != this._validatedPositions) {
+            removedParts.forEach(part -> this.markBlockForValidation(part.getWorldPosition()));
+        }
 
-                    // report error and quit
+        return removedParts;
+    }
 
-                    if (validatorCallback.isLastErrorEmpty()) {
-                        validatorCallback.setLastError(partLocation, s_errors[errorIndex]);
-                    }
+	@Override
+	public void forceStructureUpdate(final World world) {
 
-                    return false;
-                }
-            }
+	    final CuboidBoundingBox bb = this.getBoundingBox();
 
-            this._detachedParts.clear();
+	    if (bb.isEmpty()) {
+	        return;
         }
 
-        final BlockPos.Mutable partLocation = new BlockPos.Mutable();
-        boolean isValid;
-        int errorIndex;
+	    final BlockPos minCoord = bb.getMin();
+	    final BlockPos maxCoord = bb.getMax();
+        final int minX = minCoord.getX();
+        final int minY = minCoord.getY();
+        final int minZ = minCoord.getZ();
+        final int maxX = maxCoord.getX();
+        final int maxY = maxCoord.getY();
+        final int maxZ = maxCoord.getZ();
+        final BlockPos.Mutable pos = new BlockPos.Mutable();
 
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
 
-                    // Okay, figure out what sort of block this should be.
+                    final BlockState state = world.getBlockState(pos.set(x, y ,z));
 
-                    partLocation.set(x, y, z);
+                    world.sendBlockUpdated(pos, state, state, Constants.BlockFlags.DEFAULT);
+                }
+            }
+        }
+	}
 
-                    final IMultiblockPart<Controller> part = this._connectedParts.get(BlockPos.asLong(x, y, z));
-                    int extremes = 0;
-                    boolean downFacing = false;
-                    boolean upFacing = false;
-                    boolean northFacing = false;
-                    boolean southFacing = false;
-                    boolean westFacing = false;
-                    boolean eastFacing = false;
+	//endregion
+	//region internals
 
-                    if (x == minX) {
+    protected AbstractCuboidMultiblockController(World world) {
 
-                        ++extremes;
-                        westFacing = true;
-                    }
+        super(world);
+        this._validatedBoundingBox = CuboidBoundingBox.EMPTY;
+        this._validatedPositions = null;
+        this._positionsToValidate = null;
+    }
 
-                    if (x == maxX) {
+    /**
+     * Enable the incremental validation of the multiblock structure.
+     *
+     * When enabled, the result of the validation of every position in the bounding box is cached and only the
+     * positions that changed since the last validation pass are checked again. A full validation is still performed
+     * every time the bounding box of the multiblock change.
+     *
+     * Parts and connection changes are tracked automatically but changes to non-part blocks (for example, the
+     * blocks in the interior of the multiblock) must be reported by calling {@link #markBlockForValidation(BlockPos)}.
+     * The isBlockGoodFor*() methods and {@link AbstractCuboidMultiblockPart#isGoodForPosition} must only depend on
+     * the block at the position being tested.
+     *
+     * @return true to enable the incremental validation, false otherwise
+     */
+    protected boolean isIncrementalValidationEnabled() {
+        return false;
+    }
 
-                        ++extremes;
-                        eastFacing = true;
-                    }
+    /**
+     * Inform the controller that the block at the given position was changed and must be checked again
+     * during the next validation pass. Only useful if incremental validation is enabled.
+     *
+     * @param position the position of the changed block
+     */
+    public void markBlockForValidation(final BlockPos position) {
 
-                    if (y == minY) {
+        if (null != this._validatedPositions) {
 
-                        ++extremes;
-                        downFacing = true;
-                    }
+            if (null == this._positionsToValidate) {
+                this._positionsToValidate = new LongOpenHashSet(16);
+            }
 
-                    if (y == maxY) {
+            this._positionsToValidate.add(position.asLong());
+        }
+    }
 
-                        ++extremes;
-                        upFacing = true;
-                    }
+    /**
+     * Discard all the cached validation results. The next validation pass will check the whole multiblock.
+     */
+    protected void invalidateValidationCache() {
 
-                    if (z == minZ) {
+        this._validatedBoundingBox = CuboidBoundingBox.EMPTY;
+        this._validatedPositions = null;
+        this._positionsToValidate = null;
+    }
 
-                        ++extremes;
-                        northFacing = true;
-                    }
+    /**
+     * Enable the parallel validation of large multiblock structures.
+     *
+     * When enabled, the blocks states inside the bounding box are copied to an immutable {@link BlockStateSnapshot}
+     * and the structure is validated, in slabs, on the common {@link ForkJoinPool}. This only happens when the whole
+     * structure must be validated and the bounding box is at least {@link #getParallelValidationMinimumVolume()} blocks big.
+     *
+     * The parallel validation is only available to the controllers implementing {@link IParallelCuboidValidation}
+     * and it's enabled by default for them. By implementing that interface you also declare that
+     * {@link AbstractCuboidMultiblockPart#isGoodForPosition} of your parts is thread-safe.
+     * The positions of the parts are updated on the calling thread once the validation is over.
+     *
+     * @return true to enable the parallel validation, false otherwise
+     */
+    protected boolean isParallelValidationEnabled() {
+        return this instanceof IParallelCuboidValidation;
+    }
 
-                    if (z == maxZ) {
+    /**
+     * @return the minimum volume of the bounding box required to validate the multiblock in parallel
+     */
+    protected int getParallelValidationMinimumVolume() {
+        return 32 * 32 * 32;
+    }
 
-                        ++extremes;
-                        southFacing = true;
-                    }
+    /**
+     * Get the validation plan for a machine with the given bounding box.
+     * The plan classify each position inside the machine without checking the bounding box coordinates every time.
+     *
+     * @param bb the bounding box of the machine
+     * @return the validation plan
+     */
+    protected CuboidValidationPlan getValidationPlan(final CuboidBoundingBox bb) {
+        return CuboidValidationPlan.of(bb.getLengthX(), bb.getLengthY(), bb.getLengthZ());
+    }
 
-                    if (part instanceof AbstractCuboidMultiblockPart) {
+    /**
+     * Get a predicate to check, directly from their block state, the blocks found in the given class of positions
+     * that are not parts of this machine. When a predicate is available, the corresponding isBlockGoodFor*()
+     * method is not called.
+     *
+     * During a full validation pass the predicates are tested against a copy of the block states inside the bounding
+     * box of the machine. They must only depend on the block state they are given and, if parallel validation is
+     * enabled, they must be thread-safe.
+     *
+     * @param positionClass the class of positions
+     * @return the predicate or null to use the isBlockGoodFor*() method for the given class of positions
+     */
+    @Nullable
+    protected Predicate<BlockState> getValidBlockStates(final CuboidValidationPlan.PositionClass positionClass) {
+        return null;
+    }
 
-                        ///////////////////////////////////////////////////////////////////////////////////////////////
-                        // found a cuboid part. is it valid?
+    /**
+     * Checks all of the parts in the controller. If any are dead or do not exist in the world, they are removed.
+     */
+    @Override
+    protected void auditParts(final ChunkCache chunkCache) {
 
-                        if (!part.testOnController(this::isControllerCompatible)) {
+        super.auditParts(chunkCache);
+        this.invalidateValidationCache();
+    }
 
-                            validatorCallback.setLastError(partLocation, "zerocore:api.multiblock.validation.invalid_part");
-                            return false;
-                        }
+    private boolean isMachineWholeIncremental(final CuboidBoundingBox bb, ValidationPass pass,
+                                              final BlockPos.Mutable partLocation,
+                                              final IMultiblockValidator validatorCallback) {
 
-                        final PartPosition partPosition;
+        final int minX = bb.getMinX(), minY = bb.getMinY(), minZ = bb.getMinZ();
+        final int lengthY = bb.getLengthY(), lengthZ = bb.getLengthZ();
+        final int volume = bb.getVolume();
 
-                        if (extremes >= 2) {
+        if (null == this._validatedPositions || !this._validatedBoundingBox.equals(bb)) {
 
-                            errorIndex = 0;
+            // new (or first) bounding box: validate everything
 
-                            if (!eastFacing && !westFacing) {
-                                partPosition = PartPosition.FrameEastWest;
-                            } else if (!southFacing && !northFacing) {
-                                partPosition = PartPosition.FrameSouthNorth;
-                            } else {
-                                partPosition = PartPosition.FrameUpDown;
-                            }
+            this._validatedBoundingBox = new CuboidBoundingBox(bb.getMin(), bb.getMax());
+            this._validatedPositions = new BitSet(volume);
 
-                        } else if (1 == extremes) {
+            final Optional<BlockStateSnapshot> snapshot = this.getParallelValidationSnapshot(bb);
 
-                            if (y == maxY) {
+            if (snapshot.isPresent()) {
 
-                                errorIndex = 1;
-                                partPosition = PartPosition.TopFace;
+                this._positionsToValidate = null;
 
-                            } else if (y == minY) {
+                if (this.isMachineWholeParallel(pass.withSnapshot(snapshot.get()), bb, validatorCallback)) {
 
-                                errorIndex = 2;
-                                partPosition = PartPosition.BottomFace;
+                    this._validatedPositions.set(0, volume);
+                    return true;
+                }
+
+                return false;
+            }
 
-                            } else {
+            pass = pass.withCachedBlockStates(bb);
 
-                                errorIndex = 3;
+        } else if (null != this._positionsToValidate) {
 
-                                if (eastFacing) {
-                                    partPosition = PartPosition.EastFace;
-                                } else if (westFacing) {
-                                    partPosition = PartPosition.WestFace;
-                                } else if (southFacing) {
-                                    partPosition = PartPosition.SouthFace;
-                                } else if (northFacing) {
-                                    partPosition = PartPosition.NorthFace;
-                                } else if (upFacing) {
-                                    partPosition = PartPosition.TopFace;
-                                } else {
-                                    partPosition = PartPosition.BottomFace;
-                                }
-                            }
+            // forget the results for the positions that changed since the last pass
 
-                        } else {
+            final LongIterator iterator = this._positionsToValidate.iterator();
 
-                            errorIndex = 4;
-                            partPosition = PartPosition.Interior;
-                        }
+            while (iterator.hasNext()) {
+
+                final long hash = iterator.nextLong();
+                final int x = BlockPos.getX(hash), y = BlockPos.getY(hash), z = BlockPos.getZ(hash);
+
+                if (bb.contains(x, y, z)) {
+                    this._validatedPositions.clear(((x - minX) * lengthY + (y - minY)) * lengthZ + (z - minZ));
+                }
+            }
+        }
 
-                        final BlockFacings facings = BlockFacings.from(downFacing, upFacing, northFacing, southFacing, westFacing, eastFacing);
+        this._positionsToValidate = null;
 
-                        ((AbstractCuboidMultiblockPart<Controller>)part).setPartPosition(partPosition, facings);
-                        isValid = ((AbstractCuboidMultiblockPart<Controller>)part).isGoodForPosition(partPosition, validatorCallback);
+        // visit the positions in the same order used by a full validation pass so the same errors are reported
 
-                        ///////////////////////////////////////////////////////////////////////////////////////////////
+        final BitSet validated = this._validatedPositions;
 
-                    } else {
+        for (int index = validated.nextClearBit(0); index < volume; index = validated.nextClearBit(index + 1)) {
 
-                        ///////////////////////////////////////////////////////////////////////////////////////////////
-                        // found something else. is it valid?
+            final int x = minX + index / (lengthY * lengthZ);
+            final int y = minY + (index / lengthZ) % lengthY;
+            final int z = minZ + index % lengthZ;
 
-                        if (extremes >= 2) {
+            if (!this.isBlockValid(pass, partLocation, x, y, z, true, validatorCallback)) {
+                return false;
+            }
 
-                            errorIndex = 0;
-                            isValid = this.isBlockGoodForFrame(world, x, y, z, validatorCallback);
+            validated.set(index);
+        }
 
-                        } else if (1 == extremes) {
+        if (!this.isAssembled()) {
 
-                            if (y == maxY) {
+            // the parts that were not checked in this pass may have lost their position when the machine was broken
+            this.updatePartsPositions(pass);
+        }
 
-                                errorIndex = 1;
-                                isValid = this.isBlockGoodForTop(world, x, y, z, validatorCallback);
+        return true;
+    }
 
-                            } else if (y == minY) {
+    /**
+     * Take a snapshot of the blocks in the bounding box if the multiblock should be validated in parallel
+     *
+     * @return the snapshot or an empty {@link Optional} if the multiblock should be validated on the current thread
+     */
+    private Optional<BlockStateSnapshot> getParallelValidationSnapshot(final CuboidBoundingBox bb) {
 
-                                errorIndex = 2;
-                                isValid = this.isBlockGoodForBottom(world, x, y, z, validatorCallback);
+        if (!(this instanceof IParallelCuboidValidation) || !this.isParallelValidationEnabled() ||
+                bb.getVolume() < this.getParallelValidationMinimumVolume()) {
+            return Optional.empty();
+        }
 
-                            } else {
+        return this.takeBlockStateSnapshot(bb);
+    }
 
-                                errorIndex = 3;
-                                isValid = this.isBlockGoodForSides(world, x, y, z, validatorCallback);
-                            }
+    private Optional<BlockStateSnapshot> takeBlockStateSnapshot(final CuboidBoundingBox bb) {
 
-                        } else {
+        final ChunkCache chunkCache = ChunkCache.getOrCreate(this.getWorld());
+        final Optional<BlockStateSnapshot> snapshot = BlockStateSnapshot.from(chunkCache, bb);
 
-                            errorIndex = 4;
-                            isValid = this.isBlockGoodForInterior(world, x, y, z, validatorCallback);
-                        }
+        chunkCache.clear();
+        return snapshot;
+    }
 
-                        ///////////////////////////////////////////////////////////////////////////////////////////////
-                    }
+    private boolean isMachineWholeParallel(final ValidationPass pass, final CuboidBoundingBox bb,
+                                           final IMultiblockValidator validatorCallback) {
 
-                    if (!isValid) {
+        final ParallelValidationTask task = new ParallelValidationTask(pass, bb, new AtomicInteger(Integer.MAX_VALUE),
+                bb.getMinX(), bb.getMaxX() + 1);
+        final ValidationError error = ForkJoinPool.commonPool().invoke(task);
 
-                        // report error and quit
+        if (null != error) {
 
-                        if (validatorCallback.isLastErrorEmpty()) {
-                            validatorCallback.setLastError(partLocation, s_errors[errorIndex]);
-                        }
+            validatorCallback.setLastError(error);
+            return false;
+        }
 
-                        return false;
+        // the worker threads only read the parts, update their positions here, once the whole structure is known
+        // to be valid. A failed pass leaves all the parts as they were
+        this.updatePartsPositions(pass);
+        return true;
+    }
+
+    /**
+     * Validate a slab of the bounding box, splitting it along the X axis if it's too big.
+     * The result is the first error found in the slab, in the same order used by the serial validation, or null
+     */
+    private final class ParallelValidationTask
+            extends RecursiveTask<ValidationError> {
+
+        ParallelValidationTask(final ValidationPass pass, final CuboidBoundingBox bb,
+                               final AtomicInteger firstInvalidX, final int fromX, final int toX) {
+
+            this._pass = pass;
+            this._bb = bb;
+            this._firstInvalidX = firstInvalidX;
+            this._fromX = fromX;
+            this._toX = toX;
+        }
+
+        @Nullable
+        @Override
+        protected ValidationError compute() {
+
+            final int slabWidth = this._toX - this._fromX;
+
+            if (slabWidth > 1 && slabWidth * this._bb.getLengthY() * this._bb.getLengthZ() > PARALLEL_VALIDATION_SLAB_VOLUME) {
+
+                final int middleX = this._fromX + slabWidth / 2;
+                final ParallelValidationTask lower = new ParallelValidationTask(this._pass, this._bb, this._firstInvalidX, this._fromX, middleX);
+                final ParallelValidationTask upper = new ParallelValidationTask(this._pass, this._bb, this._firstInvalidX, middleX, this._toX);
+
+                upper.fork();
+
+                final ValidationError lowerError = lower.compute();
+                final ValidationError upperError = upper.join();
+
+                // errors found in the lower slab come first in the validation order
+                return null != lowerError ? lowerError : upperError;
+            }
+
+            final CuboidBoundingBox bb = this._bb;
+            final int minY = bb.getMinY(), minZ = bb.getMinZ();
+            final int maxY = bb.getMaxY(), maxZ = bb.getMaxZ();
+            final BlockPos.Mutable partLocation = new BlockPos.Mutable();
+            final ValidationErrorRecorder recorder = new ValidationErrorRecorder();
+
+            for (int x = this._fromX; x < this._toX; ++x) {
+
+                if (x > this._firstInvalidX.get()) {
+                    // a lower slab already found an error, nothing found here will be reported
+                    return null;
+                }
+
+                for (int y = minY; y <= maxY; ++y) {
+                    for (int z = minZ; z <= maxZ; ++z) {
+
+                        if (!isBlockValid(this._pass, partLocation, x, y, z, false, recorder)) {
+
+                            this._firstInvalidX.accumulateAndGet(x, Math::min);
+                            return recorder.getLastError().orElse(null);
+                        }
                     }
                 }
             }
+
+            return null;
         }
 
-        return true;
+        //region internals
+
+        private final ValidationPass _pass;
+        private final CuboidBoundingBox _bb;
+        private final AtomicInteger _firstInvalidX;
+        private final int _fromX;
+        private final int _toX;
+
+        //endregion
     }
 
-	@Override
-	public void forceStructureUpdate(final World world) {
+    /**
+     * Collect the validation errors reported by a single slab of a parallel validation
+     */
+    private static final class ValidationErrorRecorder
+            implements IMultiblockValidator {
 
-	    final CuboidBoundingBox bb = this.getBoundingBox();
+        @Override
+        public Optional<ValidationError> getLastError() {
+            return Optional.ofNullable(this._error);
+        }
 
-	    if (bb.isEmpty()) {
-	        return;
+        @Override
+        public void setLastError(final ValidationError error) {
+            this._error = error;
         }
 
-	    final BlockPos minCoord = bb.getMin();
-	    final BlockPos maxCoord = bb.getMax();
-        final int minX = minCoord.getX();
-        final int minY = minCoord.getY();
-        final int minZ = minCoord.getZ();
-        final int maxX = maxCoord.getX();
-        final int maxY = maxCoord.getY();
-        final int maxZ = maxCoord.getZ();
-        final BlockPos.Mutable pos = new BlockPos.Mutable();
+        @Override
+        public void setLastError(final String messageFormatStringResourceKey, final Object... messageParameters) {
+            this._error = new ValidationError(null, messageFormatStringResourceKey, messageParameters);
+        }
 
-        for (int x = minX; x <= maxX; ++x) {
-            for (int y = minY; y <= maxY; ++y) {
-                for (int z = minZ; z <= maxZ; ++z) {
+        @Override
+        public void setLastError(final BlockPos position, final String messageFormatStringResourceKey,
+                                 final Object... messageParameters) {
+            this._error = new ValidationError(position.immutable(), messageFormatStringResourceKey, messageParameters);
+        }
 
-                    final BlockState state = world.getBlockState(pos.set(x, y ,z));
+        private ValidationError _error;
+    }
 
-                    world.sendBlockUpdated(pos, state, state, Constants.BlockFlags.DEFAULT);
+    /**
+     * The data used to validate the multiblock structure during a single validation pass
+     */
+    private final class ValidationPass {
+
+        ValidationPass(final CuboidBoundingBox bb) {
+
+            final CuboidValidationPlan.PositionClass[] positionClasses = CuboidValidationPlan.PositionClass.values();
+            boolean predicatesFound = false;
+
+            //noinspection unchecked
+            this._predicates = (Predicate<BlockState>[])new Predicate[positionClasses.length];
+
+            for (final CuboidValidationPlan.PositionClass positionClass : positionClasses) {
+
+                this._predicates[positionClass.ordinal()] = getValidBlockStates(positionClass);
+                predicatesFound |= null != this._predicates[positionClass.ordinal()];
+            }
+
+            this._plan = getValidationPlan(bb);
+            this._minX = bb.getMinX();
+            this._minY = bb.getMinY();
+            this._minZ = bb.getMinZ();
+            this._hasPredicates = predicatesFound;
+            this._snapshot = null;
+            this._states = null;
+        }
+
+        /**
+         * Use the given snapshot for the {@link IParallelCuboidValidation} methods and for the predicates
+         */
+        ValidationPass withSnapshot(final BlockStateSnapshot snapshot) {
+            return new ValidationPass(this, snapshot, snapshot);
+        }
+
+        /**
+         * If some predicates are available, copy the block states in the bounding box once so they could be tested
+         * without looking up the chunks of the world for every block
+         */
+        ValidationPass withCachedBlockStates(final CuboidBoundingBox bb) {
+
+            if (!this._hasPredicates || null != this._states) {
+                return this;
+            }
+
+            return takeBlockStateSnapshot(bb)
+                    .map(states -> new ValidationPass(this, this._snapshot, states))
+                    .orElse(this);
+        }
+
+        int classify(final int x, final int y, final int z) {
+            return this._plan.classify(x - this._minX, y - this._minY, z - this._minZ);
+        }
+
+        @Nullable
+        Predicate<BlockState> getPredicate(final CuboidValidationPlan.PositionClass positionClass) {
+            return this._predicates[positionClass.ordinal()];
+        }
+
+        @Nullable
+        BlockStateSnapshot getSnapshot() {
+            return this._snapshot;
+        }
+
+        BlockState getBlockState(final BlockPos position) {
+            return null != this._states ? this._states.getBlockState(position) : getWorld().getBlockState(position);
+        }
+
+        //region internals
+
+        private ValidationPass(final ValidationPass other, @Nullable final BlockStateSnapshot snapshot,
+                               @Nullable final BlockStateSnapshot states) {
+
+            this._plan = other._plan;
+            this._minX = other._minX;
+            this._minY = other._minY;
+            this._minZ = other._minZ;
+            this._predicates = other._predicates;
+            this._hasPredicates = other._hasPredicates;
+            this._snapshot = snapshot;
+            this._states = states;
+        }
+
+        private final CuboidValidationPlan _plan;
+        private final int _minX, _minY, _minZ;
+        private final Predicate<BlockState>[] _predicates;
+        private final boolean _hasPredicates;
+        @Nullable
+        private final BlockStateSnapshot _snapshot;
+        @Nullable
+        private final BlockStateSnapshot _states;
+
+        //endregion
+    }
+
+    /**
+     * Check if the block at the given position is valid for it's position in the multiblock structure.
+     * If the block is a cuboid part and updatePartPosition is true, it's position and outward facings are updated
+     *
+     * @return true if the block is valid, false otherwise
+     */
+    private boolean isBlockValid(final ValidationPass pass, final BlockPos.Mutable partLocation,
+                                 final int x, final int y, final int z, final boolean updatePartPosition,
+                                 final IMultiblockValidator validatorCallback) {
+
+        // Okay, figure out what sort of block this should be.
+
+        partLocation.set(x, y, z);
+
+        final int classCode = pass.classify(x, y, z);
+        final CuboidValidationPlan.PositionClass positionClass = CuboidValidationPlan.positionClassOf(classCode);
+        final IMultiblockPart<Controller> part = this._connectedParts.get(BlockPos.asLong(x, y, z));
+        final boolean isValid;
+
+        if (part instanceof AbstractCuboidMultiblockPart) {
+
+            ///////////////////////////////////////////////////////////////////////////////////////////////
+            // found a cuboid part. is it valid?
+
+            if (!part.testOnController(this::isControllerCompatible)) {
+
+                validatorCallback.setLastError(partLocation, "zerocore:api.multiblock.validation.invalid_part");
+                return false;
+            }
+
+            final AbstractCuboidMultiblockPart<Controller> cuboidPart = (AbstractCuboidMultiblockPart<Controller>)part;
+            final PartPosition partPosition = CuboidValidationPlan.partPositionOf(classCode);
+
+            if (updatePartPosition) {
+                cuboidPart.setPartPosition(partPosition, CuboidValidationPlan.facingsOf(classCode));
+            }
+
+            isValid = cuboidPart.isGoodForPosition(partPosition, validatorCallback);
+
+            ///////////////////////////////////////////////////////////////////////////////////////////////
+
+        } else {
+
+            ///////////////////////////////////////////////////////////////////////////////////////////////
+            // found something else. is it valid?
+
+            isValid = this.isBlockGoodFor(pass, positionClass, partLocation, validatorCallback);
+
+            ///////////////////////////////////////////////////////////////////////////////////////////////
+        }
+
+        if (!isValid) {
+
+            // report error and quit
+
+            if (validatorCallback.isLastErrorEmpty()) {
+                validatorCallback.setLastError(partLocation, positionClass.getErrorKey());
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Set the position and outward facings of all the cuboid parts of the machine
+     */
+    private void updatePartsPositions(final ValidationPass pass) {
+
+        for (final IMultiblockPart<Controller> part : this._connectedParts) {
+            if (part instanceof AbstractCuboidMultiblockPart) {
+
+                final BlockPos position = part.getWorldPosition();
+                final int classCode = pass.classify(position.getX(), position.getY(), position.getZ());
+
+                if (CuboidValidationPlan.OUTSIDE == classCode) {
+                    continue;
                 }
+
+                ((AbstractCuboidMultiblockPart<Controller>)part).setPartPosition(CuboidValidationPlan.partPositionOf(classCode),
+                        CuboidValidationPlan.facingsOf(classCode));
             }
         }
-	}
+    }
 
-	//endregion
-	//region internals
+    /**
+     * Check if a block that is not a part of this machine is valid for the given class of positions
+     *
+     * @return true if the block is valid, false otherwise
+     */
+    private boolean isBlockGoodFor(final ValidationPass pass, final CuboidValidationPlan.PositionClass positionClass,
+                                   final BlockPos position, final IMultiblockValidator validatorCallback) {
 
-    protected AbstractCuboidMultiblockController(World world) {
-        super(world);
+        final Predicate<BlockState> predicate = pass.getPredicate(positionClass);
+
+        if (null != predicate) {
+            return predicate.test(pass.getBlockState(position));
+        }
+
+        final BlockStateSnapshot snapshot = pass.getSnapshot();
+        // a snapshot is only used by the parallel validation
+        final IParallelCuboidValidation parallel = null == snapshot ? null : (IParallelCuboidValidation)this;
+        final World world = this.getWorld();
+        final int x = position.getX(), y = position.getY(), z = position.getZ();
+
+        switch (positionClass) {
+
+            case Frame:
+                return null == snapshot ? this.isBlockGoodForFrame(world, x, y, z, validatorCallback) :
+                        parallel.isBlockGoodForFrame(snapshot, x, y, z, validatorCallback);
+
+            case Top:
+                return null == snapshot ? this.isBlockGoodForTop(world, x, y, z, validatorCallback) :
+                        parallel.isBlockGoodForTop(snapshot, x, y, z, validatorCallback);
+
+            case Bottom:
+                return null == snapshot ? this.isBlockGoodForBottom(world, x, y, z, validatorCallback) :
+                        parallel.isBlockGoodForBottom(snapshot, x, y, z, validatorCallback);
+
+            case Sides:
+                return null == snapshot ? this.isBlockGoodForSides(world, x, y, z, validatorCallback) :
+                        parallel.isBlockGoodForSides(snapshot, x, y, z, validatorCallback);
+
+            default:
+                return null == snapshot ? this.isBlockGoodForInterior(world, x, y, z, validatorCallback) :
+                        parallel.isBlockGoodForInterior(snapshot, x, y, z, validatorCallback);
+        }
     }
 
     private static boolean isSizeWrong(final IMultiblockValidator validatorCallback, final Direction.Axis axis,
@@ -404,17 +865,13 @@ public abstract class AbstractCuboidMultiblockController<Controller extends Abst
         return false;
     }
 
-    private static final String[] s_errors;
+    private static final int PARALLEL_VALIDATION_SLAB_VOLUME = 16 * 16 * 16;
 
-	static {
-
-        s_errors = new String[5];
-        s_errors[0] = "zerocore:api.multiblock.validation.invalid_part_for_frame";
-        s_errors[1] = "zerocore:api.multiblock.validation.invalid_part_for_top";
-        s_errors[2] = "zerocore:api.multiblock.validation.invalid_part_for_bottom";
-        s_errors[3] = "zerocore:api.multiblock.validation.invalid_part_for_sides";
-        s_errors[4] = "zerocore:api.multiblock.validation.invalid_part_for_interior";
-    }
+    private CuboidBoundingBox _validatedBoundingBox;
+    @Nullable
+    private BitSet _validatedPositions;
+    @Nullable
+    private LongSet _positionsToValidate;
 
     //endregion
 }
@@ -43,11 +43,13 @@ package it.zerono.mods.zerocore.lib.multiblock.cuboid;
 
 import it.zerono.mods.zerocore.lib.CodeHelper;
 import it.zerono.mods.zerocore.lib.block.BlockFacings;
+import it.zerono.mods.zerocore.lib.block.INeighborChangeListener;
 import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
 import it.zerono.mods.zerocore.lib.multiblock.AbstractMultiblockPart;
 import it.zerono.mods.zerocore.lib.multiblock.validation.IMultiblockValidator;
 import it.zerono.mods.zerocore.lib.world.WorldHelper;
 import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
 import net.minecraft.tileentity.TileEntityType;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
@@ -57,7 +59,8 @@ import java.util.Optional;
 
 @SuppressWarnings("WeakerAccess")
 public abstract class AbstractCuboidMultiblockPart<Controller extends AbstractCuboidMultiblockController<Controller>>
-        extends AbstractMultiblockPart<Controller> {
+        extends AbstractMultiblockPart<Controller>
+        implements INeighborChangeListener {
 
 	public AbstractCuboidMultiblockPart(final TileEntityType<?> type) {
 
@@ -148,8 +151,15 @@ public abstract class AbstractCuboidMultiblockPart<Controller extends AbstractCu
 
     void setPartPosition(final PartPosition position, final BlockFacings facings) {
 
+        final boolean changed = position != this._position || !facings.equals(this._outwardFacings);
+
 	    this._position = position;
 	    this._outwardFacings = facings;
+
+        // parts of a machine that is being assembled (or broken) are rendered again anyway
+        if (changed && this.isMachineAssembled()) {
+            this.callOnLogicalClient(this::markModelForRenderUpdate);
+        }
     }
 
 	/**
@@ -172,6 +182,26 @@ public abstract class AbstractCuboidMultiblockPart<Controller extends AbstractCu
         }
 	}
 
+	//region INeighborChangeListener
+
+    /**
+     * Called when a neighboring Block on a side of this TileEntity changes
+     * Inform the controller, if the neighbor is inside the multiblock, that the block must be validated again
+     *
+     * @param state            the BlockState of this TileEntity block
+     * @param neighborPosition position of neighbor
+     */
+    @Override
+    public void onNeighborBlockChanged(final BlockState state, final BlockPos neighborPosition, final boolean isMoving) {
+        this.executeOnController(controller -> {
+
+            if (controller.getBoundingBox().contains(neighborPosition)) {
+                controller.markBlockForValidation(neighborPosition);
+            }
+        });
+    }
+
+    //endregion
 	//region AbstractMultiblockPart
 
 	@Override
@@ -0,0 +1,252 @@
+/*
+ *
+ * CuboidValidationPlan.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.cuboid;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.zerono.mods.zerocore.lib.block.BlockFacings;
+
+/**
+ * A precompiled classification of all the positions inside a cuboid multiblock of a given size.
+ *
+ * Each position is classified by looking at where it lies on each axis (on the minimum edge, on the maximum edge,
+ * on both if the machine is one block thick or inside) and the 64 possible combinations are mapped, once, to
+ * the {@link PositionClass}, {@link PartPosition} and {@link BlockFacings} of the position.
+ *
+ * Plans are immutable and are shared between all the machines with the same size (see {@link #of(int, int, int)})
+ */
+public final class CuboidValidationPlan {
+
+    /**
+     * The validation rules that apply to a position in the multiblock
+     */
+    public enum PositionClass {
+
+        /**
+         * The outer edges of the machine, plus the corners
+         */
+        Frame("zerocore:api.multiblock.validation.invalid_part_for_frame"),
+        /**
+         * The top face, minus the edges
+         */
+        Top("zerocore:api.multiblock.validation.invalid_part_for_top"),
+        /**
+         * The bottom face, minus the edges
+         */
+        Bottom("zerocore:api.multiblock.validation.invalid_part_for_bottom"),
+        /**
+         * The N/E/S/W-facing faces, minus the edges
+         */
+        Sides("zerocore:api.multiblock.validation.invalid_part_for_sides"),
+        /**
+         * Any block that does not touch blocks outside the machine
+         */
+        Interior("zerocore:api.multiblock.validation.invalid_part_for_interior");
+
+        PositionClass(final String errorKey) {
+            this._errorKey = errorKey;
+        }
+
+        /**
+         * @return the translation key of the validation error reported for an invalid block in this position class
+         */
+        public String getErrorKey() {
+            return this._errorKey;
+        }
+
+        private final String _errorKey;
+    }
+
+    /**
+     * The class code of the positions outside the machine. It must not be used with the lookup methods of this class
+     */
+    public static final int OUTSIDE = -1;
+
+    /**
+     * Get the plan for a machine of the given size
+     *
+     * @param lengthX the size of the machine along the X axis
+     * @param lengthY the size of the machine along the Y axis
+     * @param lengthZ the size of the machine along the Z axis
+     * @return the plan
+     */
+    public static CuboidValidationPlan of(final int lengthX, final int lengthY, final int lengthZ) {
+
+        final long key = ((long)lengthX << 42) | ((long)lengthY << 21) | (long)lengthZ;
+
+        synchronized (s_cache) {
+
+            CuboidValidationPlan plan = s_cache.getAndMoveToFirst(key);
+
+            if (null == plan) {
+
+                plan = new CuboidValidationPlan(lengthX, lengthY, lengthZ);
+                s_cache.putAndMoveToFirst(key, plan);
+
+                if (s_cache.size() > CACHE_SIZE) {
+                    s_cache.removeLast();
+                }
+            }
+
+            return plan;
+        }
+    }
+
+    public int getLengthX() {
+        return this._x.length;
+    }
+
+    public int getLengthY() {
+        return this._y.length;
+    }
+
+    public int getLengthZ() {
+        return this._z.length;
+    }
+
+    /**
+     * Classify a position inside the machine
+     *
+     * @param offsetX the offset of the position from the minimum X coordinate of the machine
+     * @param offsetY the offset of the position from the minimum Y coordinate of the machine
+     * @param offsetZ the offset of the position from the minimum Z coordinate of the machine
+     * @return the class code of the position, to be used with the lookup methods of this class, or {@link #OUTSIDE}
+     * if the position is not inside the machine
+     */
+    public int classify(final int offsetX, final int offsetY, final int offsetZ) {
+
+        if (offsetX < 0 || offsetX >= this._x.length || offsetY < 0 || offsetY >= this._y.length ||
+                offsetZ < 0 || offsetZ >= this._z.length) {
+            return OUTSIDE;
+        }
+
+        return (this._x[offsetX] << 4) | (this._y[offsetY] << 2) | this._z[offsetZ];
+    }
+
+    public static PositionClass positionClassOf(final int classCode) {
+        return s_positionClasses[classCode];
+    }
+
+    public static PartPosition partPositionOf(final int classCode) {
+        return s_partPositions[classCode];
+    }
+
+    public static BlockFacings facingsOf(final int classCode) {
+        return s_facings[classCode];
+    }
+
+    //region internals
+
+    private CuboidValidationPlan(final int lengthX, final int lengthY, final int lengthZ) {
+
+        this._x = axisCodes(lengthX);
+        this._y = axisCodes(lengthY);
+        this._z = axisCodes(lengthZ);
+    }
+
+    private static byte[] axisCodes(final int length) {
+
+        final byte[] codes = new byte[length];
+
+        codes[0] |= MIN_EDGE;
+        codes[length - 1] |= MAX_EDGE;
+        return codes;
+    }
+
+    private static final int MIN_EDGE = 1;
+    private static final int MAX_EDGE = 2;
+    private static final int CACHE_SIZE = 32;
+
+    private static final Long2ObjectLinkedOpenHashMap<CuboidValidationPlan> s_cache;
+    private static final PositionClass[] s_positionClasses;
+    private static final PartPosition[] s_partPositions;
+    private static final BlockFacings[] s_facings;
+
+    private final byte[] _x;
+    private final byte[] _y;
+    private final byte[] _z;
+
+    static {
+
+        s_cache = new Long2ObjectLinkedOpenHashMap<>(CACHE_SIZE + 1);
+        s_positionClasses = new PositionClass[64];
+        s_partPositions = new PartPosition[64];
+        s_facings = new BlockFacings[64];
+
+        for (int classCode = 0; classCode < 64; ++classCode) {
+
+            final int x = (classCode >> 4) & 3, y = (classCode >> 2) & 3, z = classCode & 3;
+            final int extremes = Integer.bitCount(x) + Integer.bitCount(y) + Integer.bitCount(z);
+            final boolean downFacing = 0 != (y & MIN_EDGE);
+            final boolean upFacing = 0 != (y & MAX_EDGE);
+            final boolean northFacing = 0 != (z & MIN_EDGE);
+            final boolean southFacing = 0 != (z & MAX_EDGE);
+            final boolean westFacing = 0 != (x & MIN_EDGE);
+            final boolean eastFacing = 0 != (x & MAX_EDGE);
+
+            if (extremes >= 2) {
+
+                s_positionClasses[classCode] = PositionClass.Frame;
+
+                if (!eastFacing && !westFacing) {
+                    s_partPositions[classCode] = PartPosition.FrameEastWest;
+                } else if (!southFacing && !northFacing) {
+                    s_partPositions[classCode] = PartPosition.FrameSouthNorth;
+                } else {
+                    s_partPositions[classCode] = PartPosition.FrameUpDown;
+                }
+
+            } else if (1 == extremes) {
+
+                if (upFacing) {
+
+                    s_positionClasses[classCode] = PositionClass.Top;
+                    s_partPositions[classCode] = PartPosition.TopFace;
+
+                } else if (downFacing) {
+
+                    s_positionClasses[classCode] = PositionClass.Bottom;
+                    s_partPositions[classCode] = PartPosition.BottomFace;
+
+                } else {
+
+                    s_positionClasses[classCode] = PositionClass.Sides;
+
+                    if (eastFacing) {
+                        s_partPositions[classCode] = PartPosition.EastFace;
+                    } else if (westFacing) {
+                        s_partPositions[classCode] = PartPosition.WestFace;
+                    } else if (southFacing) {
+                        s_partPositions[classCode] = PartPosition.SouthFace;
+                    } else {
+                        s_partPositions[classCode] = PartPosition.NorthFace;
+                    }
+                }
+
+            } else {
+
+                s_positionClasses[classCode] = PositionClass.Interior;
+                s_partPositions[classCode] = PartPosition.Interior;
+            }
+
+            s_facings[classCode] = BlockFacings.from(downFacing, upFacing, northFacing, southFacing, westFacing, eastFacing);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,82 @@
+/*
+ *
+ * IParallelCuboidValidation.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.cuboid;
+
+import it.zerono.mods.zerocore.lib.multiblock.validation.IMultiblockValidator;
+import net.minecraft.world.IBlockReader;
+
+/**
+ * Implement this interface in an {@link AbstractCuboidMultiblockController} to enable the parallel validation of
+ * large multiblock structures (see {@link AbstractCuboidMultiblockController#isParallelValidationEnabled()}).
+ *
+ * The methods are called by the worker threads of the validation with an immutable snapshot of the blocks in the
+ * bounding box of the machine: they must be thread-safe and must not change the state of the world or of the machine
+ */
+public interface IParallelCuboidValidation {
+
+    /**
+     * The "frame" consists of the outer edges of the machine, plus the corners.
+     *
+     * @param blocks an immutable snapshot of the blocks in the bounding box of the machine
+     * @param x X coordinate of the block being tested
+     * @param y Y coordinate of the block being tested
+     * @param z Z coordinate of the block being tested
+     */
+    boolean isBlockGoodForFrame(IBlockReader blocks, int x, int y, int z, IMultiblockValidator validatorCallback);
+
+    /**
+     * The top consists of the top face, minus the edges.
+     *
+     * @param blocks an immutable snapshot of the blocks in the bounding box of the machine
+     * @param x X coordinate of the block being tested
+     * @param y Y coordinate of the block being tested
+     * @param z Z coordinate of the block being tested
+     */
+    boolean isBlockGoodForTop(IBlockReader blocks, int x, int y, int z, IMultiblockValidator validatorCallback);
+
+    /**
+     * The bottom consists of the bottom face, minus the edges.
+     *
+     * @param blocks an immutable snapshot of the blocks in the bounding box of the machine
+     * @param x X coordinate of the block being tested
+     * @param y Y coordinate of the block being tested
+     * @param z Z coordinate of the block being tested
+     */
+    boolean isBlockGoodForBottom(IBlockReader blocks, int x, int y, int z, IMultiblockValidator validatorCallback);
+
+    /**
+     * The sides consists of the N/E/S/W-facing faces, minus the edges.
+     *
+     * @param blocks an immutable snapshot of the blocks in the bounding box of the machine
+     * @param x X coordinate of the block being tested
+     * @param y Y coordinate of the block being tested
+     * @param z Z coordinate of the block being tested
+     */
+    boolean isBlockGoodForSides(IBlockReader blocks, int x, int y, int z, IMultiblockValidator validatorCallback);
+
+    /**
+     * The interior is any block that does not touch blocks outside the machine.
+     *
+     * @param blocks an immutable snapshot of the blocks in the bounding box of the machine
+     * @param x X coordinate of the block being tested
+     * @param y Y coordinate of the block being tested
+     * @param z Z coordinate of the block being tested
+     */
+    boolean isBlockGoodForInterior(IBlockReader blocks, int x, int y, int z, IMultiblockValidator validatorCallback);
+}
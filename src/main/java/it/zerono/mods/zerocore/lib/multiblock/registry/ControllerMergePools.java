@@ -0,0 +1,133 @@
+/*
+ *
+ * ControllerMergePools.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.registry;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Group the controllers that must be merged together in a single pool.
+ *
+ * A disjoint-set (union-find) structure with union by size and path halving: adding a group of controllers that
+ * touch the same orphan part is almost constant time no matter how many pools already exist.
+ */
+final class ControllerMergePools<Controller> {
+
+    ControllerMergePools() {
+
+        this._parents = new Reference2ObjectOpenHashMap<>(16);
+        this._parents.defaultReturnValue(null);
+        this._sizes = new Reference2IntOpenHashMap<>(16);
+    }
+
+    /**
+     * Put all the given controllers in the same pool, joining all the pools they are already in
+     *
+     * @param controllers the controllers to merge
+     */
+    void union(final Collection<Controller> controllers) {
+
+        Controller root = null;
+
+        for (final Controller controller : controllers) {
+            root = null == root ? this.find(controller) : this.union(root, controller);
+        }
+    }
+
+    /**
+     * @return the pools of controllers to merge, each with at least two controllers
+     */
+    Collection<List<Controller>> getPools() {
+
+        final Reference2ObjectMap<Controller, List<Controller>> pools = new Reference2ObjectOpenHashMap<>(this._sizes.size());
+
+        for (final Controller controller : this._parents.keySet()) {
+            pools.computeIfAbsent(this.find(controller), root -> new ReferenceArrayList<>(this._sizes.getInt(root)))
+                    .add(controller);
+        }
+
+        return pools.values();
+    }
+
+    //region internals
+
+    private Controller find(final Controller controller) {
+
+        Controller current = controller;
+        Controller parent = this._parents.get(current);
+
+        if (null == parent) {
+
+            // first time we see this controller: it's a pool on its own
+
+            this._parents.put(current, current);
+            this._sizes.put(current, 1);
+            return current;
+        }
+
+        while (parent != current) {
+
+            final Controller grandParent = this._parents.get(parent);
+
+            this._parents.put(current, grandParent);
+            current = grandParent;
+            parent = this._parents.get(current);
+        }
+
+        return current;
+    }
+
+    private Controller union(final Controller root, final Controller controller) {
+
+        final Controller otherRoot = this.find(controller);
+
+        if (root == otherRoot) {
+            return root;
+        }
+
+        final int size = this._sizes.getInt(root);
+        final int otherSize = this._sizes.getInt(otherRoot);
+
+        if (size < otherSize) {
+
+            this._parents.put(root, otherRoot);
+            this._sizes.put(otherRoot, size + otherSize);
+            this._sizes.removeInt(root);
+            return otherRoot;
+
+        } else {
+
+            this._parents.put(otherRoot, root);
+            this._sizes.put(root, size + otherSize);
+            this._sizes.removeInt(otherRoot);
+            return root;
+        }
+    }
+
+    private final Reference2ObjectMap<Controller, Controller> _parents;
+    private final Reference2IntMap<Controller> _sizes;
+
+    //endregion
+}
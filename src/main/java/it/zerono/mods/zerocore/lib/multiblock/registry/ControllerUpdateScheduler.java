@@ -0,0 +1,251 @@
+/*
+ *
+ * ControllerUpdateScheduler.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.registry;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockController;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keep track of when the controllers of a world should be updated next.
+ *
+ * Scheduled controllers are kept in a timing wheel with one slot for each of the next 64 ticks.
+ * Controllers scheduled further away share a slot with the nearer ones and are skipped until they are due.
+ * Sleeping controllers are not in the wheel at all and are only scheduled again by {@link #wakeUp(IMultiblockController)}
+ */
+final class ControllerUpdateScheduler<Controller extends IMultiblockController<Controller>> {
+
+    ControllerUpdateScheduler() {
+
+        this._entries = new Reference2ObjectOpenHashMap<>(64);
+        this._entries.defaultReturnValue(null);
+        this._wheel = createWheel();
+        this._dueControllers = new ReferenceArrayList<>(64);
+        this._nextTick = 0;
+    }
+
+    /**
+     * Start tracking a controller. The controller will be updated on the next tick.
+     *
+     * @param controller the controller
+     */
+    void add(final Controller controller) {
+
+        if (!this._entries.containsKey(controller)) {
+
+            final Entry<Controller> entry = new Entry<>(controller, this._nextTick);
+
+            this._entries.put(controller, entry);
+            this.schedule(entry, this._nextTick);
+        }
+    }
+
+    /**
+     * Stop tracking a controller
+     *
+     * @param controller the controller
+     */
+    void remove(final Controller controller) {
+
+        final Entry<Controller> entry = this._entries.remove(controller);
+
+        if (null != entry) {
+            this.unschedule(entry);
+        }
+    }
+
+    /**
+     * Schedule a sleeping (or not yet due) controller to be updated on the next tick
+     *
+     * @param controller the controller
+     */
+    void wakeUp(final Controller controller) {
+
+        final Entry<Controller> entry = this._entries.get(controller);
+
+        if (null != entry && entry._dueTick > this._nextTick) {
+
+            this.unschedule(entry);
+            this.schedule(entry, this._nextTick);
+        }
+    }
+
+    /**
+     * Collect the controllers that must be updated in the current tick and advance the scheduler to the next tick.
+     * The returned controllers are no longer scheduled: call {@link #reschedule(IMultiblockController, int)} for
+     * each of them after they were updated.
+     *
+     * @return the controllers to update. The list is reused by the next call to this method
+     */
+    List<Controller> pollDue() {
+
+        final long tick = this._nextTick++;
+        final Set<Entry<Controller>> slot = this._wheel[slotOf(tick)];
+
+        this._dueControllers.clear();
+
+        if (!slot.isEmpty()) {
+
+            final Iterator<Entry<Controller>> iterator = slot.iterator();
+
+            while (iterator.hasNext()) {
+
+                final Entry<Controller> entry = iterator.next();
+
+                if (entry._dueTick <= tick) {
+
+                    iterator.remove();
+                    entry._dueTick = NOT_SCHEDULED;
+                    ++entry._updates;
+                    this._dueControllers.add(entry._controller);
+                }
+            }
+        }
+
+        return this._dueControllers;
+    }
+
+    /**
+     * Schedule the next update of a controller.
+     * If the controller was woken up while it was being updated, the earliest of the two updates is kept
+     *
+     * @param controller the controller
+     * @param delay the number of ticks to wait before the next update
+     *              or {@link IMultiblockController#UPDATE_SLEEP} to put the controller to sleep
+     */
+    void reschedule(final Controller controller, final int delay) {
+
+        final Entry<Controller> entry = this._entries.get(controller);
+
+        if (null == entry || delay < 1) {
+            return;
+        }
+
+        final long dueTick = this._nextTick - 1 + delay;
+
+        if (NOT_SCHEDULED == entry._dueTick || dueTick < entry._dueTick) {
+
+            this.unschedule(entry);
+            this.schedule(entry, dueTick);
+        }
+    }
+
+    /**
+     * @param controller the controller
+     * @return the fraction of the ticks in which the controller was updated since it was added to the scheduler
+     * or 0 if the controller is unknown
+     */
+    double getUpdateRate(final Controller controller) {
+
+        final Entry<Controller> entry = this._entries.get(controller);
+
+        if (null == entry) {
+            return 0.0;
+        }
+
+        final long elapsed = this._nextTick - entry._addedTick;
+
+        return elapsed > 0 ? (double)entry._updates / (double)elapsed : 0.0;
+    }
+
+    /**
+     * @param controller the controller
+     * @return true if the controller is sleeping waiting to be woken up, false otherwise
+     */
+    boolean isSleeping(final Controller controller) {
+
+        final Entry<Controller> entry = this._entries.get(controller);
+
+        return null != entry && NOT_SCHEDULED == entry._dueTick;
+    }
+
+    void clear() {
+
+        this._entries.clear();
+        this._dueControllers.clear();
+
+        for (final Set<Entry<Controller>> slot : this._wheel) {
+            slot.clear();
+        }
+    }
+
+    //region internals
+
+    private static final class Entry<Controller> {
+
+        Entry(final Controller controller, final long addedTick) {
+
+            this._controller = controller;
+            this._addedTick = addedTick;
+            this._dueTick = NOT_SCHEDULED;
+        }
+
+        final Controller _controller;
+        final long _addedTick;
+        long _dueTick;
+        long _updates;
+    }
+
+    private void schedule(final Entry<Controller> entry, final long dueTick) {
+
+        entry._dueTick = Math.max(dueTick, this._nextTick);
+        this._wheel[slotOf(entry._dueTick)].add(entry);
+    }
+
+    private void unschedule(final Entry<Controller> entry) {
+
+        if (NOT_SCHEDULED != entry._dueTick) {
+
+            this._wheel[slotOf(entry._dueTick)].remove(entry);
+            entry._dueTick = NOT_SCHEDULED;
+        }
+    }
+
+    private static int slotOf(final long tick) {
+        return (int)(tick & (WHEEL_SIZE - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Controller> Set<Entry<Controller>>[] createWheel() {
+
+        final Set<Entry<Controller>>[] wheel = new Set[WHEEL_SIZE];
+
+        for (int idx = 0; idx < WHEEL_SIZE; ++idx) {
+            wheel[idx] = new ReferenceOpenHashSet<>(8);
+        }
+
+        return wheel;
+    }
+
+    private static final int WHEEL_SIZE = 64;
+    private static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    private final Reference2ObjectMap<Controller, Entry<Controller>> _entries;
+    private final Set<Entry<Controller>>[] _wheel;
+    private final List<Controller> _dueControllers;
+    private long _nextTick;
+
+    //endregion
+}
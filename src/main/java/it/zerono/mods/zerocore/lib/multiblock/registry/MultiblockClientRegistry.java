@@ -41,13 +41,19 @@
 
 package it.zerono.mods.zerocore.lib.multiblock.registry;
 
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
 import it.zerono.mods.zerocore.lib.multiblock.IMultiblockController;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.entity.player.ClientPlayerEntity;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
+/**
+ * The client side registry. Only the controllers within the render distance of the player are updated:
+ * the ones outside of it are skipped and checked again later on
+ */
 public class MultiblockClientRegistry<Controller extends IMultiblockController<Controller>>
     extends MultiblockRegistry<Controller> {
 
@@ -58,10 +64,67 @@ public class MultiblockClientRegistry<Controller extends IMultiblockController<C
     @SubscribeEvent
     public void onClientTick(final TickEvent.ClientTickEvent event) {
 
-        final World world = Minecraft.getInstance().level;
+        final Minecraft mc = Minecraft.getInstance();
+        final World world = mc.level;
 
         if (TickEvent.Phase.START == event.phase && null != world) {
+
+            final ClientPlayerEntity player = mc.player;
+
+            if (null != player) {
+
+                this._playerX = (int)Math.floor(player.getX());
+                this._playerZ = (int)Math.floor(player.getZ());
+                this._updateRange = 16 * mc.options.renderDistance;
+                this._playerKnown = true;
+
+            } else {
+
+                this._playerKnown = false;
+            }
+
             this.tickStart(world);
         }
     }
+
+    //region MultiblockRegistry
+
+    /**
+     * Check if a controller of the client world should be updated in the current tick.
+     * Only the controllers with at least a part within the render distance of the player are updated
+     *
+     * @param controller The controller
+     * @return True if the controller should be updated, false to skip this update and check the controller again later on
+     */
+    @Override
+    protected boolean shouldUpdate(final Controller controller) {
+
+        if (!this._playerKnown) {
+            return false;
+        }
+
+        final CuboidBoundingBox bb = controller.getBoundingBox();
+
+        if (bb.isEmpty()) {
+            return true;
+        }
+
+        final int distanceX = Math.max(0, Math.max(bb.getMinX() - this._playerX, this._playerX - bb.getMaxX()));
+        final int distanceZ = Math.max(0, Math.max(bb.getMinZ() - this._playerZ, this._playerZ - bb.getMaxZ()));
+
+        return distanceX <= this._updateRange && distanceZ <= this._updateRange;
+    }
+
+    //endregion
+    //region internals
+
+    // snapshot of the player position, taken at the start of each client tick. Written and read on the client
+    // thread only: the server worlds of an integrated server don't look at it (see MultiblockRegistry#tickStart)
+
+    private boolean _playerKnown;
+    private int _playerX;
+    private int _playerZ;
+    private int _updateRange;
+
+    //endregion
 }
@@ -56,7 +56,10 @@ import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public class MultiblockRegistry<Controller extends IMultiblockController<Controller>>
         implements IMultiblockRegistry<Controller> {
@@ -134,12 +137,110 @@ public class MultiblockRegistry<Controller extends IMultiblockController<Control
         }
     }
 
+    /**
+     * Call to inform the registry that a part was attached to (or assimilated by) a controller.
+     * Used to keep the positions index of the registry up to date.
+     *
+     * @param controller The controller the part was attached to
+     * @param part       The part that was attached
+     */
+    @Override
+    public void onPartAttached(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(controller.getWorld());
+
+        if (null != registry) {
+            registry.onPartAttached(controller, part);
+        }
+    }
+
+    /**
+     * Call to inform the registry that a part was detached from a controller.
+     * Used to keep the positions index of the registry up to date.
+     *
+     * @param controller The controller the part was detached from
+     * @param part       The part that was detached
+     */
+    @Override
+    public void onPartDetached(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(controller.getWorld());
+
+        if (null != registry) {
+            registry.onPartDetached(controller, part);
+        }
+    }
+
+    /**
+     * Call to inform the registry that a part was detached from a paused controller because its chunk was unloaded.
+     * When the part is loaded again it will be reattached to the same controller.
+     *
+     * @param controller The controller the part was detached from
+     * @param part       The part that was unloaded
+     */
+    @Override
+    public void onPartUnloaded(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(controller.getWorld());
+
+        if (null != registry) {
+            registry.onPartUnloaded(controller, part);
+        }
+    }
+
+    /**
+     * Call to schedule an update for a controller that is sleeping or that asked to be updated at a later tick.
+     * The controller will be updated on the next tick.
+     *
+     * @param controller The controller to wake up
+     */
+    @Override
+    public void wakeUp(final Controller controller) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(controller.getWorld());
+
+        if (null != registry) {
+            registry.wakeUp(controller);
+        }
+    }
+
+    /**
+     * Get how often a controller is updated.
+     *
+     * @param controller The controller
+     * @return The fraction of the world ticks in which the controller was updated since it was registered,
+     * or 0 if the controller is unknown
+     */
+    @Override
+    public double getUpdateRate(final Controller controller) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(controller.getWorld());
+
+        return null != registry ? registry.getUpdateRate(controller) : 0.0;
+    }
+
+    /**
+     * Get the controllers that are active in a world.
+     * Use this only if you know what you're doing. You should rarely need to iterate over all controllers in a world!
+     *
+     * @param world The world
+     * @return An (unmodifiable) set of the controllers active in the world, or an empty set if the world is not tracked
+     */
+    @Override
+    public Set<Controller> getControllers(final World world) {
+
+        final MultiblockWorldRegistry<Controller> registry = this._registries.get(world);
+
+        return null != registry ? registry.getControllers() : Collections.emptySet();
+    }
+
     //endregion
     //region internals
 
     public MultiblockRegistry() {
 
         this._registries = new Reference2ObjectArrayMap<>(2 * 8);
+        this._clientUpdateFilter = this::shouldUpdate;
         MinecraftForge.EVENT_BUS.addListener(this::onWorldUnload);
         MinecraftForge.EVENT_BUS.addListener(this::onWorldTick);
     }
@@ -159,12 +260,26 @@ public class MultiblockRegistry<Controller extends IMultiblockController<Control
         if (null != registry) {
 
             registry.processMultiblockChanges();
-            registry.tickStart();
+
+            // the server worlds of an integrated server are ticked by this same registry: their controllers are
+            // always updated, no matter where the player is
+            registry.tickStart(world.isClientSide() ? this._clientUpdateFilter : c -> true);
         }
 
         profiler.pop();
     }
 
+    /**
+     * Check if a controller of a client world should be updated in the current tick.
+     * This is only called on the client thread: the controllers of the server worlds are always updated.
+     *
+     * @param controller The controller
+     * @return True if the controller should be updated, false to skip this update and check the controller again later on
+     */
+    protected boolean shouldUpdate(final Controller controller) {
+        return true;
+    }
+
     //region event handlers
 
     /**
@@ -201,6 +316,7 @@ public class MultiblockRegistry<Controller extends IMultiblockController<Control
     //endregion
 
     private final Map<World, MultiblockWorldRegistry<Controller>> _registries;
+    private final Predicate<Controller> _clientUpdateFilter;
 
     //endregion
 }
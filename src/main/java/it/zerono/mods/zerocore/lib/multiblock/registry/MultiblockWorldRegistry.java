@@ -41,6 +41,12 @@
 
 package it.zerono.mods.zerocore.lib.multiblock.registry;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
 import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
@@ -48,16 +54,22 @@ import it.zerono.mods.zerocore.internal.Log;
 import it.zerono.mods.zerocore.lib.CodeHelper;
 import it.zerono.mods.zerocore.lib.multiblock.IMultiblockController;
 import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.IParallelUpdatableController;
 import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
 import it.zerono.mods.zerocore.lib.multiblock.storage.PartStorage;
 import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
 import net.minecraft.profiler.IProfiler;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 
 /**
  * This class manages all the multiblock controllers that exist in a given world,
@@ -86,8 +98,16 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
         this._dirtyControllers = new ReferenceOpenHashSet<>(64);
         this._orphanedParts = this.createPartStorage();
         this._detachedParts = this.createPartStorage();
+        this._partsIndex = new Long2ObjectOpenHashMap<>(1024);
+        this._partsIndex.defaultReturnValue(null);
+        this._unloadedPartsIndex = new Long2ObjectOpenHashMap<>(64);
+        this._unloadedPartsIndex.defaultReturnValue(null);
+        this._missingUnloadedParts = new LongOpenHashSet(16);
         this._neighborsIterator = new NeighboringPositions();
+        this._componentNeighbors = new NeighboringPositions();
         this._multiblockChangesDelay = CodeHelper.tickCountdown(20);
+        this._updateScheduler = new ControllerUpdateScheduler<>();
+        this._parallelControllers = new ReferenceArrayList<>(16);
 
         if (CodeHelper.isDevEnv()) {
             //noinspection AutoBoxing
@@ -97,14 +117,27 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
 
     /**
      * Called before Tile Entities are ticked in the world. Run game logic.
+     *
+     * @param updateFilter Only the controllers accepted by this filter are updated, the others are checked again later
      */
-    void tickStart() {
+    void tickStart(final Predicate<Controller> updateFilter) {
 
         final IProfiler profiler = this._world.getProfiler();
 
         profiler.push("Zero CORE|Multiblock|World|Tick");
 
-        for (final Controller controller : this._controllers) {
+        // only the controllers that are due in this tick are updated, sleeping ones are skipped until woken up
+
+        final List<Controller> dueControllers = this._updateScheduler.pollDue();
+
+        // apply the updates in a deterministic order, whatever the order the controllers were scheduled in
+        Collections.sort(dueControllers);
+
+        if (!this._world.isClientSide()) {
+            this.simulateParallelUpdates(dueControllers, updateFilter, profiler);
+        }
+
+        for (final Controller controller : dueControllers) {
 
             if (controller.isEmpty()) {
 
@@ -112,10 +145,16 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
                 // Mark 'er dead and move on.
                 this._deadControllers.add(controller);
 
+            } else if (!updateFilter.test(controller)) {
+
+                // Skip this update and check the controller again later on
+                this._updateScheduler.reschedule(controller, FILTERED_UPDATE_DELAY);
+
             } else {
 
                 // Run the game logic for this world
                 controller.updateMultiblockEntity();
+                this._updateScheduler.reschedule(controller, controller.getNextUpdateDelay());
             }
         }
 
@@ -130,7 +169,8 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
         final boolean process = this._multiblockChangesDelay.getAsBoolean();
 
         if ((this._orphanedParts.isEmpty() && this._dirtyControllers.isEmpty() &&
-                this._deadControllers.isEmpty() && this._detachedParts.isEmpty()) ||
+                this._deadControllers.isEmpty() && this._detachedParts.isEmpty() &&
+                this._unloadedPartsIndex.isEmpty()) ||
                 !process) {
             return;
         }
@@ -144,169 +184,98 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
         if (!this._orphanedParts.isEmpty()) {
 
             final IPartStorage<Controller> orphansToProcess = this._orphanedParts;
-            List<Set<Controller>> mergePools = null;
+            final ControllerMergePools<Controller> mergePools = new ControllerMergePools<>();
+            final LongSet processedOrphans = new LongOpenHashSet(orphansToProcess.size());
 
             this._orphanedParts = this.createPartStorage();
 
-            // Process orphaned blocks
-            // These are blocks that exist in a valid chunk and require a controller
-            orphans:
+            // Parts that were unloaded with their chunk go straight back to the paused controller they were part of
+
             for (final IMultiblockPart<Controller> orphan : orphansToProcess) {
 
                 // This can occur on slow machines.
-                if (orphan.isPartInvalid()) {
-                    continue;
+                if (orphan.isPartInvalid() || this.reattachUnloadedPart(orphan)) {
+                    processedOrphans.add(orphan.getWorldPositionHash());
                 }
+            }
 
-                // THIS IS THE ONLY PLACE WHERE PARTS ATTACH TO CONTROLLERS
-                // Try to attach to a neighbor's master controller
-
-                final Set<Controller> compatibleControllers = orphan.attachToNeighbors(this::findControllersFor);
-                final int compatibleControllersSize = compatibleControllers.size();
-
-                switch (compatibleControllersSize) {
-
-                    case 1:
-
-                        // only 1 controller found in the neighborhood, and the part had already attached itself to it in attachToNeighbors()
-                        break;
-
-                    case 0:
-
-                        // FOREVER ALONE! Create and register a new controller.
-                        // THIS IS THE ONLY PLACE WHERE NEW CONTROLLERS ARE CREATED.
-
-                        final Controller newController = orphan.createController();
-
-                        newController.attachPart(orphan);
-                        this._controllers.add(newController);
-                        break;
-
-                    default:
-
-                        // THIS IS THE ONLY PLACE WHERE MERGES ARE DETECTED
-                        // Multiple compatible controllers indicates an impending merge.
-                        // Locate the appropriate merge pool(s)
-
-                        if (null == mergePools) {
-
-                            // No pools nearby, create a new merge pool
-                            mergePools = new ReferenceArrayList<>(16);
-                            mergePools.add(compatibleControllers);
-
-                        } else {
-
-                            if (1 == mergePools.size()) {
-
-                                final Set<Controller> pool = mergePools.get(0);
-
-                                for (final Controller controller : compatibleControllers) {
-
-                                    if (pool.contains(controller)) {
-
-                                        // At least one compatible controller is in this merge pool, so that means they
-                                        // will all touch after the merge
-
-                                        pool.addAll(compatibleControllers);
-                                        continue orphans;
-                                    }
-                                }
-
-                                // No pools nearby, create a new merge pool
-                                mergePools.add(compatibleControllers);
-
-                            } else {
-
-                                final List<Set<Controller>> candidatePools = new ReferenceArrayList<>(16);
-
-                                for (final Set<Controller> pool : mergePools) {
-
-                                    for (final Controller controller : compatibleControllers) {
-
-                                        if (pool.contains(controller)) {
-
-                                            // At least one compatible controller is in this merge pool, so that means they
-                                            // will all touch after the merge
-                                            candidatePools.add(pool);
-                                            break;
-                                        }
-                                    }
-                                }
-
-                                if (candidatePools.isEmpty()) {
-
-                                    // No pools nearby, create a new merge pool
-                                    mergePools.add(compatibleControllers);
-
-                                } else if (1 == candidatePools.size()) {
+            // Process orphaned blocks
+            // These are blocks that exist in a valid chunk and require a controller. Orphans that touch each other
+            // (usually, all the parts of a chunk that was just loaded) are grouped together and attached in one go
 
-                                    // Only one pool nearby, simply add to that one
-                                    candidatePools.get(0).addAll(compatibleControllers);
+            final List<IMultiblockPart<Controller>> component = new ReferenceArrayList<>(64);
+            final List<IMultiblockPart<Controller>> leftovers = new ReferenceArrayList<>(16);
 
-                                } else {
+            for (final IMultiblockPart<Controller> orphan : orphansToProcess) {
 
-                                    // Multiple pools - merge into one, then add the compatible controllers
+                if (!processedOrphans.contains(orphan.getWorldPositionHash())) {
 
-                                    final Set<Controller> masterPool = candidatePools.get(0);
-                                    Set<Controller> consumedPool;
+                    this.collectOrphansComponent(orphan, orphansToProcess, processedOrphans, component);
 
-                                    for (int i = 1; i < candidatePools.size(); ++i) {
+                    if (1 == component.size()) {
+                        this.attachOrphan(orphan, mergePools);
+                    } else {
+                        this.attachOrphansComponent(component, mergePools, leftovers);
+                    }
+                }
+            }
 
-                                        consumedPool = candidatePools.get(i);
-                                        masterPool.addAll(consumedPool);
-                                        mergePools.remove(consumedPool);
-                                    }
+            // Parts of a component that were not compatible with the controller chosen for it
 
-                                    masterPool.addAll(compatibleControllers);
-                                }
-                            }
-                        }
-                }
+            for (final IMultiblockPart<Controller> orphan : leftovers) {
+                this.attachOrphan(orphan, mergePools);
             }
 
             // Orphan parts processed. Process merge pools...
 
-            if (null != mergePools && !mergePools.isEmpty()) {
-
-                // Process merges - any machines that have been marked for merge should be merged into the "master" machine.
-                // To do this, we combine lists of machines that are touching one another and therefore should Golion the fuck up.
+            // Process merges - any machines that have been marked for merge should be merged into the "master" machine.
+            // To do this, we combine lists of machines that are touching one another and therefore should Golion the fuck up.
 
-                for (final Set<Controller> mergePool : mergePools) {
+            for (final List<Controller> mergePool : mergePools.getPools()) {
 
-                    // Search for the new master machine, which will take over all the blocks contained in the other machines
-                    Controller newMaster = null;
+                // Search for the new master machine, which will take over all the blocks contained in the other machines.
+                // Controllers are ordered by size first so the master is the largest one and the smaller machines
+                // are moved into it
+                Controller newMaster = null;
 
-                    for (final Controller controller : mergePool) {
+                for (final Controller controller : mergePool) {
 
-                        if (null == newMaster || controller.shouldConsumeController(newMaster)) {
-                            newMaster = controller;
-                        }
+                    if (null == newMaster || controller.shouldConsumeController(newMaster)) {
+                        newMaster = controller;
                     }
+                }
 
-                    if (null == newMaster) {
+                if (null == newMaster) {
 
-                        //noinspection AutoBoxing
-                        Log.LOGGER.error(Log.MULTIBLOCK, "[Multiblock Registry] Checked a merge pool of size {}, found no master candidates. This should never happen.", mergePool.size());
+                    //noinspection AutoBoxing
+                    Log.LOGGER.error(Log.MULTIBLOCK, "[Multiblock Registry] Checked a merge pool of size {}, found no master candidates. This should never happen.", mergePool.size());
 
-                    } else {
+                } else {
 
-                        // Merge all the other machines into the master machine, then unregister them
+                    // Merge all the other machines into the master machine, then unregister them
 
-                        this._dirtyControllers.add(newMaster);
+                    this._dirtyControllers.add(newMaster);
 
-                        for (final Controller controller : mergePool) {
+                    for (final Controller controller : mergePool) {
 
-                            if (controller != newMaster) {
+                        if (controller != newMaster) {
 
-                                newMaster.assimilateController(controller);
-                                this._deadControllers.add(controller);
-                            }
+                            newMaster.assimilateController(controller);
+                            this._deadControllers.add(controller);
                         }
                     }
                 }
             }
         } // orphaned parts / merge processing complete
 
+        // Unloaded parts that didn't come back when their chunk was loaded again were changed while unloaded
+
+        if (!this._unloadedPartsIndex.isEmpty()) {
+
+            profiler.popPush("Zero CORE|Multiblock|World|UnloadedParts");
+            this.checkUnloadedParts();
+        }
+
         profiler.popPush("Zero CORE|Multiblock|World|Split&Assembly");
 
         // Process splits and assembly
@@ -335,6 +304,7 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
 
                     controller.recalculateCoords();
                     controller.checkIfMachineIsWhole();
+                    this._updateScheduler.wakeUp(controller);
 
                 } else {
 
@@ -370,6 +340,7 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
 
                 // THIS IS THE ONLY PLACE WHERE CONTROLLERS ARE UNREGISTERED.
                 this._controllers.remove(controller);
+                this._updateScheduler.remove(controller);
             }
 
             this._deadControllers.clear();
@@ -429,6 +400,14 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
             this._orphanedParts.remove(part);
         }
 
+        // drop any leftover entry in the positions index
+        final long positionHash = part.getWorldPositionHash();
+        final Controller controller = this._partsIndex.get(positionHash);
+
+        if (null != controller && !controller.containsPart(part)) {
+            this._partsIndex.remove(positionHash);
+        }
+
         part.assertDetached();
 
         profiler.pop();
@@ -447,6 +426,10 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
         this._controllers.clear();
         this._deadControllers.clear();
         this._dirtyControllers.clear();
+        this._partsIndex.clear();
+        this._unloadedPartsIndex.clear();
+        this._missingUnloadedParts.clear();
+        this._updateScheduler.clear();
         this._orphanedParts = null;
         this._detachedParts = null;
         this._world = null;
@@ -472,26 +455,357 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
      * @param dirtyController The dirty controller.
      */
     void addDirtyController(Controller dirtyController) {
+
         this._dirtyControllers.add(dirtyController);
+        this._updateScheduler.wakeUp(dirtyController);
     }
 
-    private Set<Controller> findControllersFor(final IMultiblockPart<Controller> orphan) {
+    /**
+     * Schedule an update for a controller on the next tick.
+     *
+     * @param controller The controller to wake up.
+     */
+    void wakeUp(final Controller controller) {
+        this._updateScheduler.wakeUp(controller);
+    }
+
+    /**
+     * @param controller The controller.
+     * @return The fraction of the ticks in which the controller was updated since it was registered.
+     */
+    double getUpdateRate(final Controller controller) {
+        return this._updateScheduler.getUpdateRate(controller);
+    }
+
+    /**
+     * Record that a part is now owned by the given controller.
+     *
+     * @param controller The controller the part was attached to.
+     * @param part The attached part.
+     */
+    void onPartAttached(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        this._partsIndex.put(part.getWorldPositionHash(), controller);
+        this._updateScheduler.wakeUp(controller);
+    }
+
+    /**
+     * Forget about a part, but only if it's still recorded as owned by the given controller.
+     *
+     * @param controller The controller the part was detached from.
+     * @param part The detached part.
+     */
+    void onPartDetached(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        final long positionHash = part.getWorldPositionHash();
+
+        if (this._partsIndex.get(positionHash) == controller) {
+            this._partsIndex.remove(positionHash);
+        }
+
+        this._updateScheduler.wakeUp(controller);
+    }
+
+    /**
+     * Record that a part was detached from a paused controller because its chunk was unloaded.
+     *
+     * @param controller The controller the part was detached from.
+     * @param part The unloaded part.
+     */
+    void onPartUnloaded(final Controller controller, final IMultiblockPart<Controller> part) {
+
+        final long positionHash = part.getWorldPositionHash();
+
+        this._unloadedPartsIndex.put(positionHash, controller);
+        this._missingUnloadedParts.remove(positionHash);
+    }
+
+    /**
+     * Give a reloaded part back to the controller it was detached from when its chunk was unloaded, if that
+     * controller is still around.
+     *
+     * @param part The reloaded part.
+     * @return True if the part was reattached to its controller, false otherwise.
+     */
+    private boolean reattachUnloadedPart(final IMultiblockPart<Controller> part) {
+
+        if (this._unloadedPartsIndex.isEmpty()) {
+            return false;
+        }
+
+        final long positionHash = part.getWorldPositionHash();
+        final Controller controller = this._unloadedPartsIndex.remove(positionHash);
+
+        if (null == controller) {
+            return false;
+        }
+
+        this._missingUnloadedParts.remove(positionHash);
+
+        return this._controllers.contains(controller) && !controller.isEmpty() &&
+                part.getControllerType().equals(controller.getClass()) && controller.isPartCompatible(part) &&
+                controller.reattachUnloadedPart(part);
+    }
+
+    /**
+     * Drop the unloaded parts of controllers that are gone and give up on the parts that didn't come back after
+     * their chunk was loaded again. A part is given up only if it's still missing on two consecutive checks.
+     */
+    private void checkUnloadedParts() {
+
+        final ObjectIterator<Long2ObjectMap.Entry<Controller>> iterator = Long2ObjectMaps.fastIterator(this._unloadedPartsIndex);
+        final BlockPos.Mutable position = new BlockPos.Mutable();
+
+        while (iterator.hasNext()) {
+
+            final Long2ObjectMap.Entry<Controller> entry = iterator.next();
+            final long positionHash = entry.getLongKey();
+            final Controller controller = entry.getValue();
+
+            if (!this._controllers.contains(controller)) {
+
+                iterator.remove();
+                this._missingUnloadedParts.remove(positionHash);
+
+            } else if (this._world.hasChunkAt(position.set(BlockPos.getX(positionHash), BlockPos.getY(positionHash),
+                    BlockPos.getZ(positionHash)))) {
+
+                if (!this._missingUnloadedParts.add(positionHash)) {
+
+                    iterator.remove();
+                    this._missingUnloadedParts.remove(positionHash);
+                    controller.forgetUnloadedPart(positionHash);
+                }
+
+            } else {
+
+                this._missingUnloadedParts.remove(positionHash);
+            }
+        }
+    }
+
+    /**
+     * Attach a single orphan part to the controllers around it, or to a new controller.
+     *
+     * @param orphan The orphan part.
+     * @param mergePools The merge pools to update if the part is touching more than one controller.
+     */
+    private void attachOrphan(final IMultiblockPart<Controller> orphan, final ControllerMergePools<Controller> mergePools) {
+
+        // THIS IS THE ONLY PLACE WHERE PARTS ATTACH TO CONTROLLERS
+        // Try to attach to a neighbor's master controller
+
+        final Set<Controller> compatibleControllers = orphan.attachToNeighbors(this::findControllersFor);
+
+        switch (compatibleControllers.size()) {
+
+            case 1:
+
+                // only 1 controller found in the neighborhood, and the part had already attached itself to it in attachToNeighbors()
+                break;
+
+            case 0:
+
+                // FOREVER ALONE! Create and register a new controller.
+                this.registerNewController(orphan);
+                break;
+
+            default:
+
+                // THIS IS ONE OF THE ONLY TWO PLACES WHERE MERGES ARE DETECTED
+                // Multiple compatible controllers indicates an impending merge: they will all touch after the
+                // merge so put them in the same merge pool, joining the pools they are already part of
+                mergePools.union(compatibleControllers);
+                break;
+        }
+    }
+
+    /**
+     * Attach a group of connected orphan parts to the best controller around them, or to a new controller.
+     * Parts that are not compatible with the chosen controller are added to the leftovers list.
+     *
+     * @param component The connected orphan parts.
+     * @param mergePools The merge pools to update if the parts are touching more than one controller.
+     * @param leftovers The parts that were not attached.
+     */
+    private void attachOrphansComponent(final List<IMultiblockPart<Controller>> component,
+                                        final ControllerMergePools<Controller> mergePools,
+                                        final List<IMultiblockPart<Controller>> leftovers) {
+
+        final Set<Controller> compatibleControllers = new ReferenceOpenHashSet<>(8);
+        Controller master = null;
+
+        for (final IMultiblockPart<Controller> part : component) {
+            this.collectControllersFor(part, compatibleControllers);
+        }
+
+        for (final Controller controller : compatibleControllers) {
+            if (null == master || controller.shouldConsumeController(master)) {
+                master = controller;
+            }
+        }
+
+        int first = 0;
+
+        if (null == master) {
+
+            // FOREVER ALONE! Create and register a new controller for the whole group.
+            master = this.registerNewController(component.get(0));
+            first = 1;
+
+        } else if (compatibleControllers.size() > 1) {
+
+            // THIS IS ONE OF THE ONLY TWO PLACES WHERE MERGES ARE DETECTED
+            mergePools.union(compatibleControllers);
+        }
+
+        for (int idx = first; idx < component.size(); ++idx) {
+
+            final IMultiblockPart<Controller> part = component.get(idx);
+
+            if (master.isPartCompatible(part)) {
+                master.attachPart(part);
+            } else {
+                leftovers.add(part);
+            }
+        }
+    }
+
+    /**
+     * Create a new controller for an orphan part and register it.
+     * THIS IS THE ONLY PLACE WHERE NEW CONTROLLERS ARE CREATED.
+     *
+     * @param orphan The orphan part.
+     * @return The new controller.
+     */
+    private Controller registerNewController(final IMultiblockPart<Controller> orphan) {
+
+        final Controller newController = orphan.createController();
+
+        newController.attachPart(orphan);
+        this._controllers.add(newController);
+        this._updateScheduler.add(newController);
+        return newController;
+    }
+
+    /**
+     * Collect all the orphan parts, of the same controller type, that are connected to the given one.
+     *
+     * @param orphan The orphan to start from.
+     * @param orphans All the orphan parts being processed.
+     * @param processedOrphans The positions of the orphan parts already processed. Updated with the collected parts.
+     * @param component Filled with the collected parts, including the starting one.
+     */
+    private void collectOrphansComponent(final IMultiblockPart<Controller> orphan, final IPartStorage<Controller> orphans,
+                                         final LongSet processedOrphans,
+                                         final List<IMultiblockPart<Controller>> component) {
+
+        final Class<Controller> controllerType = orphan.getControllerType();
+        final int neighborsCount = this._componentNeighbors.size();
+        int next = 0;
+
+        component.clear();
+        component.add(orphan);
+        processedOrphans.add(orphan.getWorldPositionHash());
+
+        while (next < component.size()) {
+
+            this._componentNeighbors.setTo(component.get(next++).getWorldPosition());
+
+            for (int idx = 0; idx < neighborsCount; ++idx) {
+
+                final long positionHash = this._componentNeighbors.getHash(idx);
+
+                if (!processedOrphans.contains(positionHash)) {
+
+                    final IMultiblockPart<Controller> neighbor = orphans.get(positionHash);
+
+                    if (null != neighbor && controllerType.equals(neighbor.getControllerType())) {
+
+                        processedOrphans.add(positionHash);
+                        component.add(neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the controllers that own a part next to the given orphan and could accept it.
+     * Package-private for the controllers lookup benchmark.
+     *
+     * @param orphan The orphaned part.
+     * @return The compatible controllers next to the orphan.
+     */
+    Set<Controller> findControllersFor(final IMultiblockPart<Controller> orphan) {
 
-        final Class<? extends IMultiblockController<Controller>> targetControllerType = orphan.getControllerType();
         final Set<Controller> controllers = new ReferenceArraySet<>(6);
 
+        this.collectControllersFor(orphan, controllers);
+        return controllers;
+    }
+
+    private void collectControllersFor(final IMultiblockPart<Controller> orphan, final Set<Controller> controllers) {
+
+        final Class<? extends IMultiblockController<Controller>> targetControllerType = orphan.getControllerType();
+        final int neighborsCount = this._neighborsIterator.size();
+
         this._neighborsIterator.setTo(orphan.getWorldPosition());
 
-        for (final Controller controller : this._controllers) {
+        // only look at the controllers owning the neighboring positions. Parts are removed from the index when they
+        // are detached from their controller, but we still ask the candidate controllers if they really own a part
+        // next to the orphan so a stale entry could never attach the orphan to the wrong machine
+
+        for (int idx = 0; idx < neighborsCount; ++idx) {
+
+            final Controller controller = this._partsIndex.get(this._neighborsIterator.getHash(idx));
 
-            if (targetControllerType.equals(controller.getClass()) &&
+            if (null != controller && !controllers.contains(controller) &&
+                    targetControllerType.equals(controller.getClass()) &&
                     controller.isPartCompatible(orphan) &&
                     controller.containsPartsAt(this._neighborsIterator)) {
                 controllers.add(controller);
             }
         }
+    }
 
-        return controllers;
+    /**
+     * Run the simulation phase of the controllers that support it, in parallel.
+     * Only the controllers that will be updated in this tick are simulated.
+     *
+     * @param dueControllers the controllers that are due in this tick
+     * @param updateFilter the filter the due controllers must pass to be updated
+     * @param profiler the world profiler
+     */
+    private void simulateParallelUpdates(final List<Controller> dueControllers, final Predicate<Controller> updateFilter,
+                                         final IProfiler profiler) {
+
+        final List<IParallelUpdatableController> simulated = this._parallelControllers;
+
+        simulated.clear();
+
+        for (final Controller controller : dueControllers) {
+            if (controller instanceof IParallelUpdatableController && controller.isAssembled() &&
+                    !controller.isEmpty() && updateFilter.test(controller)) {
+                simulated.add((IParallelUpdatableController)controller);
+            }
+        }
+
+        if (simulated.isEmpty()) {
+            return;
+        }
+
+        profiler.push("Zero CORE|Multiblock|World|Simulate");
+
+        if (1 == simulated.size()) {
+            simulated.get(0).simulateUpdate();
+        } else {
+            SimulationPool.get().invoke(new SimulateTask(simulated, 0, simulated.size()));
+        }
+
+        simulated.clear();
+
+        profiler.pop();
     }
 
     private IPartStorage<Controller> createPartStorage() {
@@ -500,6 +814,63 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
 
 	//region internals
 
+    /**
+     * Run the simulation phase of a slice of the controllers. Big slices are split in half and simulated in parallel.
+     */
+    private static final class SimulateTask
+            extends RecursiveAction {
+
+        SimulateTask(final List<IParallelUpdatableController> controllers, final int from, final int to) {
+
+            this._controllers = controllers;
+            this._from = from;
+            this._to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (this._to - this._from > 1) {
+
+                final int middle = (this._from + this._to) >>> 1;
+
+                invokeAll(new SimulateTask(this._controllers, this._from, middle),
+                        new SimulateTask(this._controllers, middle, this._to));
+
+            } else {
+
+                this._controllers.get(this._from).simulateUpdate();
+            }
+        }
+
+        private final List<IParallelUpdatableController> _controllers;
+        private final int _from;
+        private final int _to;
+    }
+
+    /**
+     * The pool running the simulation phase of the controllers of all the worlds, created on first use.
+     * It is not shared with the common pool so the simulations do not compete with (or wait for) unrelated tasks
+     */
+    private static final class SimulationPool {
+
+        static ForkJoinPool get() {
+            return INSTANCE;
+        }
+
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                pool -> {
+
+                    final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+
+                    thread.setName("Zero CORE multiblock simulation #" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+    }
+
+    private static final int FILTERED_UPDATE_DELAY = 20;
+
     private World _world;
 
     // Active controllers
@@ -517,9 +888,25 @@ final class MultiblockWorldRegistry<Controller extends IMultiblockController<Con
     // Detached parts: parts which have been detached during internal operations
     private IPartStorage<Controller> _detachedParts;
 
+    // Parts position index: the controller owning the part at a given position
+    private final Long2ObjectMap<Controller> _partsIndex;
+
+    // Unloaded parts index: the paused controller waiting for the part at a given position to be loaded again
+    private final Long2ObjectMap<Controller> _unloadedPartsIndex;
+
+    // Unloaded parts found missing, after their chunk was loaded again, by the last check
+    private final LongSet _missingUnloadedParts;
+
     private final NeighboringPositions _neighborsIterator;
+    private final NeighboringPositions _componentNeighbors;
 
     private final BooleanSupplier _multiblockChangesDelay;
 
+    // When each controller should be updated next
+    private final ControllerUpdateScheduler<Controller> _updateScheduler;
+
+    // Controllers running the parallel simulation phase in the current tick
+    private final List<IParallelUpdatableController> _parallelControllers;
+
     //endregion
 }
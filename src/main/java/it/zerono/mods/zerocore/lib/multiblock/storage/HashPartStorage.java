@@ -0,0 +1,401 @@
+/*
+ *
+ * HashPartStorage.java
+ *
+ * A multiblock library for making irregularly-shaped multiblock machines
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * Original author: Erogenous Beef
+ * https://github.com/erogenousbeef/BeefCore
+ *
+ * Minecraft 1.9+ port and further development: ZeroNoRyouki
+ * https://github.com/ZeroNoRyouki/ZeroCore2
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 "ZeroNoRyouki"
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.storage;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.ObjectCollection;
+import it.unimi.dsi.fastutil.objects.ObjectCollections;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockController;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * An {@link IPartStorage} backed by an open-addressed hash map.
+ *
+ * Lookups by position are O(1) instead of the O(log n) of {@link PartStorage}, at the price of an unordered iteration.
+ * {@link #getFirst()} still return the part with the lowest position hash: the lowest key is cached and
+ * recomputed only when the part holding it is removed.
+ *
+ * Select it by overriding {@code AbstractMultiblockController.createPartStorage()}
+ */
+public class HashPartStorage<Controller extends IMultiblockController<Controller>>
+    implements IPartStorage<Controller> {
+
+    public HashPartStorage() {
+        this(16);
+    }
+
+    public HashPartStorage(final int expectedSize) {
+
+        this._parts = new Long2ObjectOpenHashMap<>(expectedSize);
+        this._parts.defaultReturnValue(null);
+        this._values = this._parts.values();
+        this._firstHashValid = false;
+    }
+
+    //region IPartStorage
+
+    @Override
+    public boolean isEmpty() {
+        return this._parts.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return this._parts.size();
+    }
+
+    @Override
+    public boolean contains(final IMultiblockPart<Controller> part) {
+        return this._parts.containsKey(part.getWorldPositionHash());
+    }
+
+    @Override
+    public boolean contains(final BlockPos[] positions) {
+
+        if (this._parts.isEmpty()) {
+            return false;
+        }
+
+        for (final BlockPos position : positions) {
+            if (this._parts.containsKey(position.asLong())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean contains(final long[] positionsHashes) {
+
+        if (this._parts.isEmpty()) {
+            return false;
+        }
+
+        for (final long positionHash : positionsHashes) {
+            if (this._parts.containsKey(positionHash)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean contains(final NeighboringPositions positions) {
+
+        if (this._parts.isEmpty()) {
+            return false;
+        }
+
+        for (int index = 0; index < positions.size(); ++index) {
+            if (this._parts.containsKey(positions.getHash(index))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public IMultiblockPart<Controller> get(final BlockPos position) {
+        return this._parts.get(position.asLong());
+    }
+
+    @Nullable
+    @Override
+    public IMultiblockPart<Controller> get(final long positionHash) {
+        return this._parts.get(positionHash);
+    }
+
+    @Override
+    public void get(final NeighboringPositions positions, final List<IMultiblockPart<Controller>> foundParts) {
+
+        if (this._parts.isEmpty()) {
+            return;
+        }
+
+        final int size = positions.size();
+
+        for (int idx = 0; idx < size; ++idx) {
+
+            final IMultiblockPart<Controller> part = this._parts.get(positions.getHash(idx));
+
+            if (null != part) {
+                foundParts.add(part);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public IMultiblockPart<Controller> getFirst() {
+
+        if (this._parts.isEmpty()) {
+            return null;
+        }
+
+        if (!this._firstHashValid) {
+
+            final LongIterator keys = this._parts.keySet().iterator();
+            long first = keys.nextLong();
+
+            while (keys.hasNext()) {
+                first = Math.min(first, keys.nextLong());
+            }
+
+            this._firstHash = first;
+            this._firstHashValid = true;
+        }
+
+        return this._parts.get(this._firstHash);
+    }
+
+    @Override
+    public void addOrReplace(final IMultiblockPart<Controller> part) {
+
+        final long positionHash = part.getWorldPositionHash();
+
+        if (this._parts.isEmpty()) {
+
+            this._firstHash = positionHash;
+            this._firstHashValid = true;
+
+        } else if (this._firstHashValid && positionHash < this._firstHash) {
+
+            this._firstHash = positionHash;
+        }
+
+        this._parts.put(positionHash, part);
+    }
+
+    @Override
+    public void addAll(final IPartStorage<Controller> parts) {
+
+        if (parts instanceof HashPartStorage) {
+
+            final HashPartStorage<Controller> other = (HashPartStorage<Controller>)parts;
+
+            if (other.isEmpty()) {
+                return;
+            }
+
+            if (this._parts.isEmpty()) {
+
+                this._firstHash = other._firstHash;
+                this._firstHashValid = other._firstHashValid;
+
+            } else if (this._firstHashValid && other._firstHashValid) {
+
+                this._firstHash = Math.min(this._firstHash, other._firstHash);
+
+            } else {
+
+                this._firstHashValid = false;
+            }
+
+            this._parts.putAll(other._parts);
+
+        } else {
+
+            IPartStorage.super.addAll(parts);
+        }
+    }
+
+    @Override
+    public void remove(final IMultiblockPart<Controller> part) {
+
+        final long positionHash = part.getWorldPositionHash();
+
+        if (this._parts.get(positionHash) == part) {
+
+            this._parts.remove(positionHash);
+
+            if (positionHash == this._firstHash) {
+                this._firstHashValid = false;
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(final Collection<IMultiblockPart<Controller>> parts) {
+
+        // one lookup per part: removing them from the values view would look for every stored part in the collection
+
+        for (final IMultiblockPart<Controller> part : parts) {
+            this.remove(part);
+        }
+    }
+
+    @Override
+    public void clear() {
+
+        this._parts.clear();
+        this._firstHashValid = false;
+    }
+
+    @Override
+    public Collection<IMultiblockPart<Controller>> unmodifiable() {
+
+        if (null == this._partsUnmodifiable) {
+            this._partsUnmodifiable = ObjectCollections.unmodifiable(this._values);
+        }
+
+        return this._partsUnmodifiable;
+    }
+
+    @Override
+    public Stream<IMultiblockPart<Controller>> stream() {
+        return this._values.stream();
+    }
+
+    @Override
+    public Stream<IMultiblockPart<Controller>> parallelStream() {
+        return this._values.parallelStream();
+    }
+
+    @Override
+    public void forEach(final Consumer<IMultiblockPart<Controller>> consumer,
+                        final Predicate<IMultiblockPart<Controller>> filter) {
+
+        for (final IMultiblockPart<Controller> part : this._values) {
+
+            if (filter.test(part)) {
+                consumer.accept(part);
+            }
+        }
+    }
+
+    @Override
+    public void forEachValidPart(final Consumer<IMultiblockPart<Controller>> consumer) {
+
+        for (final IMultiblockPart<Controller> part : this._values) {
+
+            if (!part.isPartInvalid()) {
+                consumer.accept(part);
+            }
+        }
+    }
+
+    @Override
+    public void forEachNotVisitedPart(final Consumer<IMultiblockPart<Controller>> consumer) {
+
+        for (final IMultiblockPart<Controller> part : this._values) {
+
+            if (part.isNotVisited()) {
+                consumer.accept(part);
+            }
+        }
+    }
+
+    @Override
+    public CuboidBoundingBox boundingBox() {
+
+        if (this.size() <= 4096) {
+
+            CuboidBoundingBox bb = CuboidBoundingBox.EMPTY;
+
+            for (final IMultiblockPart<Controller> part : this._values) {
+                bb = bb.add(part.getWorldPosition());
+            }
+
+            return bb;
+
+        } else {
+
+            return this.parallelStream()
+                    .map(IMultiblockPart::getWorldPosition)
+                    .collect(CuboidBoundingBox::new, CuboidBoundingBox::add, CuboidBoundingBox::combine);
+        }
+    }
+
+    //endregion
+    //region Iterable<IMultiblockPart<Controller>>
+
+    @Override
+    public Iterator<IMultiblockPart<Controller>> iterator() {
+        return this._values.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super IMultiblockPart<Controller>> action) {
+
+        for (final IMultiblockPart<Controller> part : this._values) {
+            action.accept(part);
+        }
+    }
+
+    //endregion
+    //region Object
+
+    @Override
+    public String toString() {
+        //noinspection AutoBoxing
+        return String.format("%d parts", this._parts.size());
+    }
+
+    //endregion
+    //region internals
+
+    private final Long2ObjectOpenHashMap<IMultiblockPart<Controller>> _parts;
+    private final ObjectCollection<IMultiblockPart<Controller>> _values;
+
+    private Collection<IMultiblockPart<Controller>> _partsUnmodifiable;
+
+    private long _firstHash;
+    private boolean _firstHashValid;
+
+    //endregion
+}
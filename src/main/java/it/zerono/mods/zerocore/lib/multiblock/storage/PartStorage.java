@@ -225,7 +225,12 @@ public class PartStorage<Controller extends IMultiblockController<Controller>>
 
     @Override
     public void removeAll(final Collection<IMultiblockPart<Controller>> parts) {
-        this._values.removeAll(parts);
+
+        // one lookup per part: removing them from the values view would look for every stored part in the collection
+
+        for (final IMultiblockPart<Controller> part : parts) {
+            this.remove(part);
+        }
     }
 
     @Override
@@ -41,6 +41,12 @@
 
 package it.zerono.mods.zerocore.lib.multiblock.variant;
 
+import it.zerono.mods.zerocore.lib.multiblock.cuboid.CuboidValidationPlan;
+import net.minecraft.block.BlockState;
+
+import javax.annotation.Nullable;
+import java.util.function.Predicate;
+
 public interface IMultiblockDimensionVariant
         extends IMultiblockVariant {
 
@@ -51,4 +57,29 @@ public interface IMultiblockDimensionVariant
     int getMaximumYSize();
 
     int getMinimumPartsCount();
+
+    /**
+     * Get the validation plan for a machine of this variant with the given size.
+     * By default, the same plan is shared by all the machines with the same size.
+     *
+     * @param lengthX the size of the machine along the X axis
+     * @param lengthY the size of the machine along the Y axis
+     * @param lengthZ the size of the machine along the Z axis
+     * @return the validation plan
+     */
+    default CuboidValidationPlan getValidationPlan(final int lengthX, final int lengthY, final int lengthZ) {
+        return CuboidValidationPlan.of(lengthX, lengthY, lengthZ);
+    }
+
+    /**
+     * Get a predicate to check, directly from their block state, the blocks that are not parts of the machine
+     * found in the given class of positions.
+     *
+     * @param positionClass the class of positions
+     * @return the predicate or null to let the machine check the blocks itself
+     */
+    @Nullable
+    default Predicate<BlockState> getValidBlockStates(final CuboidValidationPlan.PositionClass positionClass) {
+        return null;
+    }
 }
@@ -45,4 +45,13 @@ public interface INetworkTileEntitySyncProvider {
      * Send an update to all enlisted players
      */
     void sendUpdates();
+
+    /**
+     * Send the full data of the entity to an enlisted player with the next update.
+     * Called when the player could not apply the last update it received.
+     *
+     * @param player the player to send the full data to. Players that are not enlisted are ignored.
+     */
+    default void requestFullUpdate(ServerPlayerEntity player) {
+    }
 }
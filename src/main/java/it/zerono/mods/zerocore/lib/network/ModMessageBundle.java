@@ -0,0 +1,135 @@
+/*
+ *
+ * ModMessageBundle.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+/**
+ * A group of messages sent to the same player in a single packet by a {@link NetworkHandler}.
+ *
+ * Each message is written as the index it was registered with in the handler, followed by the length and the bytes
+ * of its data. On the receiving side, every message is decoded from its own buffer and then processed in the same
+ * order it was sent
+ */
+final class ModMessageBundle
+        implements IModMessage {
+
+    /**
+     * Construct an empty bundle to be sent over the network.
+     */
+    ModMessageBundle() {
+
+        this._data = Unpooled.buffer();
+        this._count = 0;
+        this._messages = null;
+    }
+
+    /**
+     * Construct the bundle, and all the messages in it, from the data received from the network.
+     *
+     * @param handler the {@link NetworkHandler} the messages in the bundle were registered with
+     * @param buffer the {@link PacketBuffer} containing the data received from the network.
+     */
+    ModMessageBundle(final NetworkHandler handler, final PacketBuffer buffer) {
+
+        this._data = null;
+        this._count = buffer.readVarInt();
+        this._messages = new ObjectArrayList<>(this._count);
+
+        for (int i = 0; i < this._count; ++i) {
+
+            final int index = buffer.readVarInt();
+            final int length = buffer.readVarInt();
+
+            // every message get its own copy of the data as some messages read them only when processed
+            this._messages.add(handler.decodeBundledMessage(index, new PacketBuffer(buffer.readBytes(length))));
+        }
+    }
+
+    /**
+     * @return the number of bytes of messages data in this bundle
+     */
+    int size() {
+        return this._data.readableBytes();
+    }
+
+    /**
+     * @return the messages received in this bundle
+     */
+    ObjectList<IModMessage> getMessages() {
+        return this._messages;
+    }
+
+    /**
+     * Add the data of a message to this bundle
+     *
+     * @param index the index the message was registered with in the {@link NetworkHandler}
+     * @param messageData the encoded message
+     */
+    void add(final int index, final ByteBuf messageData) {
+
+        final PacketBuffer data = new PacketBuffer(this._data);
+
+        data.writeVarInt(index);
+        data.writeVarInt(messageData.readableBytes());
+        data.writeBytes(messageData, messageData.readerIndex(), messageData.readableBytes());
+        ++this._count;
+    }
+
+    //region IModMessage
+
+    /**
+     * Encode your data into the {@link PacketBuffer} so it could be sent on the network to the other side.
+     *
+     * @param buffer the {@link PacketBuffer} to encode your data into
+     */
+    @Override
+    public void encodeTo(final PacketBuffer buffer) {
+
+        buffer.writeVarInt(this._count);
+        buffer.writeBytes(this._data, this._data.readerIndex(), this._data.readableBytes());
+    }
+
+    /**
+     * Process the messages in the bundle, in order, on the calling thread
+     *
+     * @param messageContext context for {@link NetworkEvent}
+     */
+    @Override
+    public void processMessage(final NetworkEvent.Context messageContext) {
+
+        for (final IModMessage message : this._messages) {
+            message.processMessage(messageContext);
+        }
+    }
+
+    //endregion
+    //region internals
+
+    private final ByteBuf _data;
+    private final ObjectList<IModMessage> _messages;
+    private int _count;
+
+    //endregion
+}
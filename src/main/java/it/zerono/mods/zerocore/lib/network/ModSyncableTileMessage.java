@@ -18,17 +18,34 @@
 
 package it.zerono.mods.zerocore.lib.network;
 
+import io.netty.buffer.Unpooled;
 import it.zerono.mods.zerocore.internal.Log;
+import it.zerono.mods.zerocore.internal.network.Network;
+import it.zerono.mods.zerocore.lib.data.nbt.IBinarySyncableEntity;
 import it.zerono.mods.zerocore.lib.data.nbt.INestedSyncableEntity;
 import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.fml.LogicalSide;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 /**
  * A network message to automatically sync a {@link ISyncableEntity} TileEntity over the network
+ *
+ * The message could carry the full data of the entity or only the top-level keys that changed since a previous
+ * version of the data (a delta). Deltas are merged, on the client, into the last version of the data received for
+ * the entity and the merged data is then passed to {@link ISyncableEntity#syncDataFrom}. A delta for a version
+ * the client don't have is skipped and the client ask the server to send the full data of the entity again
+ *
+ * Entities implementing {@link IBinarySyncableEntity} are synced with their binary data instead
  */
 public class ModSyncableTileMessage extends AbstractModTileMessage {
 
@@ -40,7 +57,7 @@ public class ModSyncableTileMessage extends AbstractModTileMessage {
      * @return the new sync message
      */
     public static ModSyncableTileMessage create(final BlockPos tileEntityPosition, final ISyncableEntity entity) {
-        return new ModSyncableTileMessage(tileEntityPosition, entity, false);
+        return createFor(tileEntityPosition, entity, false);
     }
 
     /**
@@ -52,15 +69,161 @@ public class ModSyncableTileMessage extends AbstractModTileMessage {
      * @throws UnsupportedOperationException if there is no nested syncable entity
      */
     public static ModSyncableTileMessage create(final BlockPos tileEntityPosition, final INestedSyncableEntity entity) {
-        return new ModSyncableTileMessage(tileEntityPosition, entity.getNestedSyncableEntity()
-                .orElseThrow(() -> new UnsupportedOperationException("Unable to create a sync message for an empty nested syncable entity")), true);
+        return createFor(tileEntityPosition, getNestedEntity(entity), true);
+    }
+
+    /**
+     * Create a sync message carrying the binary data of an entity
+     *
+     * @param tileEntityPosition the coordinates of the entity to sync
+     * @param nested true if the entity is nested inside another entity
+     * @param binaryPayload the data
+     * @return the new sync message
+     */
+    public static ModSyncableTileMessage binary(final BlockPos tileEntityPosition, final boolean nested,
+                                                final byte[] binaryPayload) {
+        return new ModSyncableTileMessage(tileEntityPosition, nested, binaryPayload);
+    }
+
+    /**
+     * Create a sync message carrying the full data of an entity
+     *
+     * @param tileEntityPosition the coordinates of the entity to sync
+     * @param nested true if the entity is nested inside another entity
+     * @param version the version of the data
+     * @param payload the data
+     * @return the new sync message
+     */
+    public static ModSyncableTileMessage full(final BlockPos tileEntityPosition, final boolean nested,
+                                              final int version, final CompoundNBT payload) {
+        return new ModSyncableTileMessage(tileEntityPosition, nested, version, NO_VERSION, payload, NO_KEYS);
+    }
+
+    /**
+     * Create a sync message carrying the changes between two versions of the data of an entity
+     *
+     * @param tileEntityPosition the coordinates of the entity to sync
+     * @param nested true if the entity is nested inside another entity
+     * @param baseVersion the version of the data the changes apply to
+     * @param version the version of the data after the changes are applied
+     * @param changes the top-level keys that were added or changed
+     * @param removedKeys the top-level keys that were removed
+     * @return the new sync message
+     */
+    public static ModSyncableTileMessage delta(final BlockPos tileEntityPosition, final boolean nested,
+                                               final int baseVersion, final int version,
+                                               final CompoundNBT changes, final String[] removedKeys) {
+        return new ModSyncableTileMessage(tileEntityPosition, nested, version, baseVersion, changes, removedKeys);
+    }
+
+    /**
+     * Collect the top-level keys that are different between two versions of the data of an entity
+     *
+     * @param base the old data
+     * @param current the new data
+     * @param changes filled with the keys that were added or changed in the new data
+     * @return the keys that were removed from the new data
+     */
+    public static String[] diff(final CompoundNBT base, final CompoundNBT current, final CompoundNBT changes) {
+
+        for (final String key : current.getAllKeys()) {
+
+            final INBT value = current.get(key);
+
+            if (!Objects.equals(value, base.get(key))) {
+                changes.put(key, value);
+            }
+        }
+
+        return base.getAllKeys().stream()
+                .filter(key -> !current.contains(key))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Get the data of an {@link ISyncableEntity}
+     *
+     * @param entity the entity
+     * @return the data
+     */
+    public static CompoundNBT getPayload(final ISyncableEntity entity) {
+
+        final CompoundNBT payload = new CompoundNBT();
+
+        entity.syncDataTo(payload, ISyncableEntity.SyncReason.NetworkUpdate);
+        return payload;
+    }
+
+    /**
+     * Get the binary data of an {@link IBinarySyncableEntity}
+     *
+     * @param entity the entity
+     * @return the data
+     */
+    public static byte[] getBinaryPayload(final IBinarySyncableEntity entity) {
+
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer(64));
+
+        try {
+
+            entity.syncDataTo(buffer);
+
+            final byte[] data = new byte[buffer.readableBytes()];
+
+            buffer.readBytes(data);
+            return data;
+
+        } finally {
+
+            buffer.release();
+        }
+    }
+
+    /**
+     * Get the {@link ISyncableEntity} nested into the provided {@link INestedSyncableEntity}
+     *
+     * @param entity the {@link INestedSyncableEntity} containing the entity to sync
+     * @return the nested entity
+     * @throws UnsupportedOperationException if there is no nested syncable entity
+     */
+    public static ISyncableEntity getNestedEntity(final INestedSyncableEntity entity) {
+        return entity.getNestedSyncableEntity()
+                .orElseThrow(() -> new UnsupportedOperationException("Unable to create a sync message for an empty nested syncable entity"));
     }
 
     public ModSyncableTileMessage(final PacketBuffer buffer) {
 
         super(buffer);
         this._nested = buffer.readBoolean();
+
+        if (buffer.readBoolean()) {
+
+            this._binaryPayload = buffer.readByteArray();
+            this._version = this._baseVersion = NO_VERSION;
+            this._payload = null;
+            this._removedKeys = NO_KEYS;
+            return;
+        }
+
+        this._binaryPayload = null;
+        this._version = buffer.readVarInt();
+        this._baseVersion = buffer.readVarInt();
         this._payload = buffer.readNbt();
+
+        if (NO_VERSION != this._baseVersion) {
+
+            final int removedCount = buffer.readVarInt();
+
+            this._removedKeys = new String[removedCount];
+
+            for (int idx = 0; idx < removedCount; ++idx) {
+                this._removedKeys[idx] = buffer.readUtf(MAX_KEY_LENGTH);
+            }
+
+        } else {
+
+            this._removedKeys = NO_KEYS;
+        }
     }
 
     //region AbstractModTileMessage
@@ -76,11 +239,28 @@ public class ModSyncableTileMessage extends AbstractModTileMessage {
             entity = (ISyncableEntity) tileEntity;
         }
 
-        if (null != entity) {
-            entity.syncDataFrom(this._payload, ISyncableEntity.SyncReason.NetworkUpdate);
-        } else {
+        if (null == entity) {
+
             Log.LOGGER.error(Log.NETWORK, "No syncable {}entity found while processing a sync message",
                     this._nested ? "(nested) " : "");
+            return;
+        }
+
+        if (null != this._binaryPayload) {
+
+            if (entity instanceof IBinarySyncableEntity) {
+                ((IBinarySyncableEntity)entity).syncDataFrom(new PacketBuffer(Unpooled.wrappedBuffer(this._binaryPayload)));
+            } else {
+                Log.LOGGER.error(Log.NETWORK, "Binary sync data received for an entity that can't process it: skipping");
+            }
+
+            return;
+        }
+
+        final CompoundNBT data = this.mergeInto(entity);
+
+        if (null != data) {
+            entity.syncDataFrom(data, ISyncableEntity.SyncReason.NetworkUpdate);
         }
     }
 
@@ -89,7 +269,27 @@ public class ModSyncableTileMessage extends AbstractModTileMessage {
 
         super.encodeTo(buffer);
         buffer.writeBoolean(this._nested);
+
+        if (null != this._binaryPayload) {
+
+            buffer.writeBoolean(true);
+            buffer.writeByteArray(this._binaryPayload);
+            return;
+        }
+
+        buffer.writeBoolean(false);
+        buffer.writeVarInt(this._version);
+        buffer.writeVarInt(this._baseVersion);
         buffer.writeNbt(this._payload);
+
+        if (NO_VERSION != this._baseVersion) {
+
+            buffer.writeVarInt(this._removedKeys.length);
+
+            for (final String key : this._removedKeys) {
+                buffer.writeUtf(key, MAX_KEY_LENGTH);
+            }
+        }
     }
 
     //region internals
@@ -103,15 +303,118 @@ public class ModSyncableTileMessage extends AbstractModTileMessage {
      */
     @SuppressWarnings("WeakerAccess")
     protected ModSyncableTileMessage(final BlockPos tileEntityPosition, final ISyncableEntity entity, final boolean nested) {
+        this(tileEntityPosition, nested, NO_VERSION, NO_VERSION, getPayload(entity), NO_KEYS);
+    }
+
+    private ModSyncableTileMessage(final BlockPos tileEntityPosition, final boolean nested, final int version,
+                                   final int baseVersion, final CompoundNBT payload, final String[] removedKeys) {
+
+        super(tileEntityPosition);
+        this._nested = nested;
+        this._version = version;
+        this._baseVersion = baseVersion;
+        this._payload = payload;
+        this._removedKeys = removedKeys;
+        this._binaryPayload = null;
+    }
+
+    private ModSyncableTileMessage(final BlockPos tileEntityPosition, final boolean nested, final byte[] binaryPayload) {
 
         super(tileEntityPosition);
         this._nested = nested;
-        this._payload = new CompoundNBT();
-        entity.syncDataTo(this._payload, ISyncableEntity.SyncReason.NetworkUpdate);
+        this._version = this._baseVersion = NO_VERSION;
+        this._payload = null;
+        this._removedKeys = NO_KEYS;
+        this._binaryPayload = binaryPayload;
     }
 
+    private static ModSyncableTileMessage createFor(final BlockPos tileEntityPosition, final ISyncableEntity entity,
+                                                    final boolean nested) {
+        return entity instanceof IBinarySyncableEntity ?
+                new ModSyncableTileMessage(tileEntityPosition, nested, getBinaryPayload((IBinarySyncableEntity)entity)) :
+                new ModSyncableTileMessage(tileEntityPosition, entity, nested);
+    }
+
+    /**
+     * Get the data to sync the entity from: the full data carried by this message or the result of merging the changes
+     * carried by this message into the last version of the data received for the entity
+     *
+     * @param entity the entity to sync
+     * @return the data or null if the changes could not be merged
+     */
+    private CompoundNBT mergeInto(final ISyncableEntity entity) {
+
+        if (NO_VERSION == this._baseVersion) {
+
+            s_resyncRequested.remove(entity);
+
+            // full data: versioned data are kept around for the next deltas
+            if (NO_VERSION == this._version) {
+                s_lastReceived.remove(entity);
+            } else {
+                s_lastReceived.put(entity, new ReceivedPayload(this._version, this._payload));
+            }
+
+            return this._payload;
+        }
+
+        final ReceivedPayload last = s_lastReceived.get(entity);
+
+        if (null == last || last._version != this._baseVersion) {
+
+            Log.LOGGER.debug(Log.NETWORK, "Skipping a sync message for an unknown version of the data of the entity at {}",
+                    this.getTileEntityPosition());
+
+            // ask for the full data only once, the following deltas are skipped until it arrive
+            if (s_resyncRequested.add(entity)) {
+                Network.sendSyncResyncRequest(this.getTileEntityPosition(), this._nested);
+            }
+
+            return null;
+        }
+
+        // changed keys replace the old values as a whole, nested compounds are not merged
+
+        for (final String key : this._removedKeys) {
+            last._payload.remove(key);
+        }
+
+        for (final String key : this._payload.getAllKeys()) {
+            last._payload.put(key, this._payload.get(key));
+        }
+
+        last._version = this._version;
+        return last._payload;
+    }
+
+    private static final class ReceivedPayload {
+
+        ReceivedPayload(final int version, final CompoundNBT payload) {
+
+            this._version = version;
+            this._payload = payload;
+        }
+
+        int _version;
+        final CompoundNBT _payload;
+    }
+
+    private static final int NO_VERSION = 0;
+    private static final int MAX_KEY_LENGTH = 256;
+    private static final String[] NO_KEYS = new String[0];
+
+    // the last data received for each entity on this side (the client), only touched by the main thread
+    private static final Map<ISyncableEntity, ReceivedPayload> s_lastReceived = new WeakHashMap<>(64);
+
+    // the entities the full data was requested for after an unknown delta, only touched by the main thread
+    private static final Set<ISyncableEntity> s_resyncRequested = Collections.newSetFromMap(new WeakHashMap<>(8));
+
     private final CompoundNBT _payload;
     private final boolean _nested;
+    private final int _version;
+    private final int _baseVersion;
+    private final String[] _removedKeys;
+    private final byte[] _binaryPayload;
 
     //endregion
 }
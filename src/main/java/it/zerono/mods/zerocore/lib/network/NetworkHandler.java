@@ -18,25 +18,53 @@
 
 package it.zerono.mods.zerocore.lib.network;
 
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.*;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.fml.network.NetworkDirection;
 import net.minecraftforge.fml.network.NetworkEvent;
 import net.minecraftforge.fml.network.NetworkRegistry;
 import net.minecraftforge.fml.network.PacketDistributor;
 import net.minecraftforge.fml.network.simple.SimpleChannel;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
 
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * A network channel for mod messages.
+ *
+ * The messages sent to a player from the server thread with {@link #sendToPlayer} are queued and then sent at the end
+ * of the server tick, grouped in a single packet for each player. Use {@link #sendToPlayerNow} for messages that
+ * must be sent right away. Any message queued for a player is always sent before any other message that is sent
+ * to the same player right away, so the order of the messages is preserved
+ */
 @SuppressWarnings({"WeakerAccess"})
 public class NetworkHandler {
 
+    /**
+     * The maximum number of bytes of messages data in a single bundle
+     */
+    public static final int MAX_BUNDLE_SIZE = 512 * 1024;
+
+    /**
+     * Create a new network channel
+     * <p>
+     * The channel register an internal message, used to group messages together, before any other message:
+     * if you are moving an existing channel to this class, bump its protocol version
+     *
+     * @param channelName     the name of the channel
+     * @param protocolVersion the version of the protocol of the channel. Clients and servers must use the same version
+     */
     public NetworkHandler(final ResourceLocation channelName, String protocolVersion) {
 
         this._nextIndex = 0;
@@ -46,6 +74,32 @@ public class NetworkHandler {
                 .serverAcceptedVersions(this._protocolVersion::equals)
                 .networkProtocolVersion(() -> this._protocolVersion)
                 .simpleChannel();
+
+        this._decoders = new ObjectArrayList<>(8);
+        this._messageIndices = new Reference2IntOpenHashMap<>(8);
+        this._messageIndices.defaultReturnValue(-1);
+        this._pendingMessages = new Reference2ObjectLinkedOpenHashMap<>(8);
+        this._encodingBuffer = new PacketBuffer(Unpooled.buffer());
+        this._bundling = true;
+
+        this._channel.registerMessage(this._nextIndex++, ModMessageBundle.class, ModMessageBundle::encodeTo,
+                buffer -> new ModMessageBundle(this, buffer), NetworkHandler::handleBundle);
+
+        MinecraftForge.EVENT_BUS.addListener(this::onServerTick);
+    }
+
+    /**
+     * Enable or disable the grouping of the messages sent to a player during a server tick
+     *
+     * @param enabled if true, the messages will be grouped, if false they will be sent right away
+     */
+    public void setMessagesBundling(final boolean enabled) {
+
+        if (!enabled) {
+            this.flushAll();
+        }
+
+        this._bundling = enabled;
     }
 
     /**
@@ -59,6 +113,8 @@ public class NetworkHandler {
     public <T extends IModMessage> void registerMessage(final Class<T> messageType,
                                                         final Function<PacketBuffer, T> messageFactory) {
 
+        this._messageIndices.put(messageType, this._decoders.size());
+        this._decoders.add(messageFactory);
         this._channel.registerMessage(this._nextIndex++, messageType, T::encodeTo,
                 messageFactory, NetworkHandler::handleMessage);
     }
@@ -74,13 +130,43 @@ public class NetworkHandler {
 
     /**
      * Send a message to a player (his client)
+     * <p>
+     * If the message is sent from the server thread, it will be queued and sent at the end of the current server tick
+     * together with the other messages sent to the same player. The message is encoded right away, so any later
+     * change to the message, or to the data it reference, is not sent
      *
      * @param message the message to send
      * @param player  the message recipient
      */
     public <T extends IModMessage> void sendToPlayer(final T message, final ServerPlayerEntity player) {
 
+        if (player instanceof FakePlayer) {
+            return;
+        }
+
+        final int index = this._messageIndices.getInt(message.getClass());
+
+        if (this._bundling && -1 != index && player.server.isSameThread()) {
+            this.enqueue(player, index, message);
+        } else {
+            this.sendToPlayerNow(message, player);
+        }
+    }
+
+    /**
+     * Send a message to a player (his client) right away, after any message already queued for the same player
+     *
+     * @param message the message to send
+     * @param player  the message recipient
+     */
+    public <T extends IModMessage> void sendToPlayerNow(final T message, final ServerPlayerEntity player) {
+
         if (!(player instanceof FakePlayer)) {
+
+            if (player.server.isSameThread()) {
+                this.flush(player);
+            }
+
             this._channel.sendTo(message, player.connection.connection, NetworkDirection.PLAY_TO_CLIENT);
         }
     }
@@ -92,6 +178,13 @@ public class NetworkHandler {
      * @param originalContext the message context of the original message
      */
     public <T extends IModMessage> void sendReply(final T message, final NetworkEvent.Context originalContext) {
+
+        final ServerPlayerEntity sender = originalContext.getSender();
+
+        if (null != sender && sender.server.isSameThread()) {
+            this.flush(sender);
+        }
+
         this._channel.reply(message, originalContext);
     }
 
@@ -102,6 +195,13 @@ public class NetworkHandler {
      * @param target  the message target
      */
     public <T extends IModMessage> void sendTo(final T message, final PacketDistributor.PacketTarget target) {
+
+        // the players in the target are not known here: send out all the queued messages to preserve the ordering
+
+        if (!this._pendingMessages.isEmpty() && isServerThread()) {
+            this.flushAll();
+        }
+
         this._channel.send(target, message);
     }
 
@@ -167,16 +267,109 @@ public class NetworkHandler {
 
     //region internals
 
+    IModMessage decodeBundledMessage(final int index, final PacketBuffer buffer) {
+
+        if (index < 0 || index >= this._decoders.size()) {
+            throw new IllegalArgumentException("Unknown message index in a bundle: " + index);
+        }
+
+        return this._decoders.get(index).apply(buffer);
+    }
+
+    private static void handleBundle(final ModMessageBundle bundle,
+                                     final Supplier<NetworkEvent.Context> contextSupplier) {
+
+        final NetworkEvent.Context messageContext = contextSupplier.get();
+
+        // every bundled message is processed as it would have been if received on its own
+        for (final IModMessage message : bundle.getMessages()) {
+            enqueueWork(message, messageContext);
+        }
+
+        messageContext.setPacketHandled(true);
+    }
+
+    private static boolean isServerThread() {
+
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+
+        return null != server && server.isSameThread();
+    }
+
+    private void onServerTick(final TickEvent.ServerTickEvent event) {
+
+        if (TickEvent.Phase.END == event.phase) {
+            this.flushAll();
+        }
+    }
+
+    private void enqueue(final ServerPlayerEntity player, final int index, final IModMessage message) {
+
+        final ObjectList<ModMessageBundle> bundles = this._pendingMessages.computeIfAbsent(player,
+                p -> new ObjectArrayList<>(1));
+        final PacketBuffer messageData = this._encodingBuffer;
+
+        messageData.clear();
+        message.encodeTo(messageData);
+
+        if (bundles.isEmpty() || bundles.get(bundles.size() - 1).size() + messageData.readableBytes() > MAX_BUNDLE_SIZE) {
+            bundles.add(new ModMessageBundle());
+        }
+
+        bundles.get(bundles.size() - 1).add(index, messageData);
+    }
+
+    private void flushAll() {
+
+        if (!this._pendingMessages.isEmpty()) {
+
+            for (final Reference2ObjectMap.Entry<ServerPlayerEntity, ObjectList<ModMessageBundle>> entry :
+                    Reference2ObjectMaps.fastIterable(this._pendingMessages)) {
+                this.send(entry.getKey(), entry.getValue());
+            }
+
+            this._pendingMessages.clear();
+        }
+    }
+
+    private void flush(final ServerPlayerEntity player) {
+
+        final ObjectList<ModMessageBundle> bundles = this._pendingMessages.remove(player);
+
+        if (null != bundles) {
+            this.send(player, bundles);
+        }
+    }
+
+    private void send(final ServerPlayerEntity player, final ObjectList<ModMessageBundle> bundles) {
+
+        if (!player.hasDisconnected()) {
+            for (final ModMessageBundle bundle : bundles) {
+                this._channel.sendTo(bundle, player.connection.connection, NetworkDirection.PLAY_TO_CLIENT);
+            }
+        }
+    }
+
     private static <T extends IModMessage> void handleMessage(final T message,
                                                               final Supplier<NetworkEvent.Context> contextSupplier) {
 
         final NetworkEvent.Context messageContext = contextSupplier.get();
 
-        messageContext.enqueueWork(() -> message.processMessage(messageContext));
+        enqueueWork(message, messageContext);
         messageContext.setPacketHandled(true);
     }
 
+    private static void enqueueWork(final IModMessage message, final NetworkEvent.Context messageContext) {
+        messageContext.enqueueWork(() -> message.processMessage(messageContext));
+    }
+
     private final String _protocolVersion;
     private final SimpleChannel _channel;
+    private final ObjectList<Function<PacketBuffer, ? extends IModMessage>> _decoders;
+    private final Reference2IntMap<Class<?>> _messageIndices;
+    private final Reference2ObjectMap<ServerPlayerEntity, ObjectList<ModMessageBundle>> _pendingMessages;
+    // only used by the server thread
+    private final PacketBuffer _encodingBuffer;
+    private boolean _bundling;
     private int _nextIndex;
 }
@@ -18,20 +18,62 @@
 
 package it.zerono.mods.zerocore.lib.network;
 
-import com.google.common.collect.Sets;
+import io.netty.channel.Channel;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectArrayMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
 import it.zerono.mods.zerocore.internal.network.Network;
+import it.zerono.mods.zerocore.lib.data.nbt.IBinarySyncableEntity;
 import it.zerono.mods.zerocore.lib.data.nbt.INestedSyncableEntity;
 import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
+import it.zerono.mods.zerocore.lib.item.inventory.container.ModTileContainer;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
 import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import net.minecraftforge.common.util.NonNullSupplier;
 
-import java.util.Optional;
-import java.util.Set;
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
 import java.util.function.Supplier;
 
+/**
+ * Sync an {@link ISyncableEntity} to the enlisted players.
+ *
+ * The full data of the entity is sent to a player when it's enlisted and then at regular intervals (see
+ * {@link #setFullUpdateInterval(int)}). The other updates only carry the top-level keys of the data that changed
+ * since the last update sent to the player, and no update is sent at all if nothing changed.
+ *
+ * Entities implementing {@link IBinarySyncableEntity} are always synced with their full binary data, but only
+ * when that data changed or when a full update is due
+ *
+ * Each player get the updates at its own rate: every time {@link #sendUpdates()} is called if the player has a GUI
+ * open on the entity, less often the farther the player is from the entity and even less often if the network
+ * connection of the player is backlogged. The players outside the server view distance (or in another world) stop getting updates until they
+ * come back in range, and they get the full data of the entity when they do
+ */
 public class NetworkTileEntitySyncProvider implements INetworkTileEntitySyncProvider {
 
+    /**
+     * The default number of updates between two full updates
+     */
+    public static final int DEFAULT_FULL_UPDATE_INTERVAL = 20;
+
+    /**
+     * The distance, in blocks, a player must move away from the entity to get one update less every
+     * {@link #sendUpdates()} call
+     */
+    public static final int UPDATE_DISTANCE_STEP = 16;
+
+    /**
+     * The maximum number of {@link #sendUpdates()} calls between two updates sent to a player in range
+     */
+    public static final int MAX_UPDATE_INTERVAL = 40;
+
     /**
      * Create a new NetworkTileEntitySyncProvider for the {@link ISyncableEntity} at the given coordinates
      *
@@ -40,7 +82,20 @@ public class NetworkTileEntitySyncProvider implements INetworkTileEntitySyncProv
      * @return the new NetworkTileEntitySyncProvider
      */
     public static NetworkTileEntitySyncProvider create(final BlockPos coordinates, final ISyncableEntity entity) {
-        return new NetworkTileEntitySyncProvider(() -> ModSyncableTileMessage.create(coordinates, entity));
+        return create(coordinates, entity, null);
+    }
+
+    /**
+     * Create a new NetworkTileEntitySyncProvider for the {@link ISyncableEntity} at the given coordinates
+     *
+     * @param coordinates the coordinates of the entity to sync
+     * @param entity the {@link ISyncableEntity} to sync
+     * @param world the world the entity is in. If null, the players in any world are considered in range
+     * @return the new NetworkTileEntitySyncProvider
+     */
+    public static NetworkTileEntitySyncProvider create(final BlockPos coordinates, final ISyncableEntity entity,
+                                                       @Nullable final World world) {
+        return new NetworkTileEntitySyncProvider(() -> coordinates, () -> entity, false, world);
     }
 
     /**
@@ -51,7 +106,30 @@ public class NetworkTileEntitySyncProvider implements INetworkTileEntitySyncProv
      * @return the new NetworkTileEntitySyncProvider
      */
     public static NetworkTileEntitySyncProvider create(final NonNullSupplier<BlockPos> coordinatesSupplier, final INestedSyncableEntity entity) {
-        return new NetworkTileEntitySyncProvider(() -> ModSyncableTileMessage.create(coordinatesSupplier.get(), entity));
+        return create(coordinatesSupplier, entity, null);
+    }
+
+    /**
+     * Create a new NetworkTileEntitySyncProvider for the {@link ISyncableEntity} nested into the provided {@link INestedSyncableEntity}
+     *
+     * @param coordinatesSupplier a Supplier for the coordinates of the {@link INestedSyncableEntity} containing the entity to sync
+     * @param entity the {@link INestedSyncableEntity} containing the entity to sync
+     * @param world the world the entity is in. If null, the players in any world are considered in range
+     * @return the new NetworkTileEntitySyncProvider
+     */
+    public static NetworkTileEntitySyncProvider create(final NonNullSupplier<BlockPos> coordinatesSupplier,
+                                                       final INestedSyncableEntity entity, @Nullable final World world) {
+        return new NetworkTileEntitySyncProvider(coordinatesSupplier, () -> ModSyncableTileMessage.getNestedEntity(entity),
+                true, world);
+    }
+
+    /**
+     * Set how often the full data of the entity is sent to the enlisted players
+     *
+     * @param updates the number of updates sent to a player between two full updates. Use 1 (or less) to always send the full data
+     */
+    public void setFullUpdateInterval(final int updates) {
+        this._fullUpdateInterval = Math.max(1, updates);
     }
 
     //region INetworkTileEntitySyncProvider
@@ -65,11 +143,16 @@ public class NetworkTileEntitySyncProvider implements INetworkTileEntitySyncProv
     @Override
     public void enlistForUpdates(ServerPlayerEntity player, boolean updateNow) {
 
-        this._players.add(player);
+        // without an update now, the player will get the full data with the next update
+        final PlayerState state = new PlayerState();
 
         if (updateNow) {
-            this.getUpdateMessage().ifPresent(update -> this.sendUpdate(update, player));
+
+            state._sent = this.createSnapshot();
+            this.sendUpdate(this.createFullUpdate(state._sent), player);
         }
+
+        this._players.put(player, state);
     }
 
     /**
@@ -87,29 +170,333 @@ public class NetworkTileEntitySyncProvider implements INetworkTileEntitySyncProv
      */
     @Override
     public void sendUpdates() {
-        if (!this._players.isEmpty()) {
-            this.getUpdateMessage().ifPresent(update -> this._players.forEach(player -> this.sendUpdate(update, player)));
+
+        if (this._players.isEmpty()) {
+            return;
+        }
+
+        // players that received the same data last time share the same delta
+        final Map<SentPayload, IModMessage> deltas = new Reference2ObjectArrayMap<>(2);
+        final ObjectIterator<Reference2ObjectMap.Entry<ServerPlayerEntity, PlayerState>> iterator =
+                this._players.reference2ObjectEntrySet().iterator();
+        SentPayload current = null;
+        IModMessage fullMessage = null;
+
+        while (iterator.hasNext()) {
+
+            final Reference2ObjectMap.Entry<ServerPlayerEntity, PlayerState> entry = iterator.next();
+            final ServerPlayerEntity player = entry.getKey();
+            final PlayerState state = entry.getValue();
+
+            if (player.hasDisconnected()) {
+
+                iterator.remove();
+                continue;
+            }
+
+            final double distanceSquared = this.getDistanceSquared(player);
+
+            if (distanceSquared > getTrackingRangeSquared(player)) {
+
+                state.suspend();
+                continue;
+            }
+
+            state.updateBackoff(isConnectionBacklogged(player));
+
+            if (!state.isUpdateDue(this.getUpdateInterval(player, distanceSquared, state))) {
+                continue;
+            }
+
+            if (null == current) {
+                current = this.createSnapshot();
+            }
+
+            final SentPayload last = state._sent;
+            final IModMessage message;
+
+            if (null == last || ++state._updatesSinceFullUpdate >= this._fullUpdateInterval) {
+
+                if (null == fullMessage) {
+                    fullMessage = this.createFullUpdate(current);
+                }
+
+                message = fullMessage;
+                state._updatesSinceFullUpdate = 0;
+
+            } else {
+
+                if (!deltas.containsKey(last)) {
+                    deltas.put(last, this.createDeltaUpdate(last, current));
+                }
+
+                message = deltas.get(last);
+            }
+
+            // nothing changed since the last update sent to this player
+            if (null == message) {
+                continue;
+            }
+
+            this.sendUpdate(message, player);
+            state._sent = current;
         }
     }
 
+    /**
+     * Send the full data of the entity to an enlisted player with the next update.
+     * Called when the player could not apply the last update it received.
+     *
+     * @param player the player to send the full data to. Players that are not enlisted are ignored.
+     */
+    @Override
+    public void requestFullUpdate(ServerPlayerEntity player) {
+
+        final PlayerState state = this._players.get(player);
+
+        if (null != state) {
+            state.reset();
+        }
+    }
+
+    //endregion
     //region internals
 
-    private NetworkTileEntitySyncProvider(final Supplier<IModMessage> messageSupplier) {
+    private NetworkTileEntitySyncProvider(final NonNullSupplier<BlockPos> coordinatesSupplier,
+                                          final Supplier<ISyncableEntity> entitySupplier, final boolean nested,
+                                          @Nullable final World world) {
 
-        this._messageSupplier = messageSupplier;
-        this._players = Sets.newHashSet();
+        this._coordinates = coordinatesSupplier;
+        this._entity = entitySupplier;
+        this._nested = nested;
+        this._world = world;
+        this._players = new Reference2ObjectArrayMap<>(4);
+        this._fullUpdateInterval = DEFAULT_FULL_UPDATE_INTERVAL;
+        this._nextVersion = 1;
     }
 
-    private Optional<IModMessage> getUpdateMessage() {
-        return Optional.ofNullable(this._messageSupplier.get());
+    private int nextVersion() {
+
+        final int version = this._nextVersion++;
+
+        // 0 is reserved for unversioned data
+        if (0 == this._nextVersion) {
+            this._nextVersion = 1;
+        }
+
+        return version;
+    }
+
+    private SentPayload createSnapshot() {
+
+        final ISyncableEntity entity = this._entity.get();
+
+        if (entity instanceof IBinarySyncableEntity) {
+            return new SentPayload(ModSyncableTileMessage.getBinaryPayload((IBinarySyncableEntity)entity));
+        } else {
+            return new SentPayload(this.nextVersion(), ModSyncableTileMessage.getPayload(entity));
+        }
+    }
+
+    private IModMessage createFullUpdate(final SentPayload sent) {
+
+        if (null != sent._binaryPayload) {
+            return ModSyncableTileMessage.binary(this._coordinates.get(), this._nested, sent._binaryPayload);
+        } else {
+            return ModSyncableTileMessage.full(this._coordinates.get(), this._nested, sent._version, sent._payload);
+        }
+    }
+
+    private IModMessage createDeltaUpdate(final SentPayload base, final SentPayload current) {
+
+        if (null != current._binaryPayload) {
+            return Arrays.equals(base._binaryPayload, current._binaryPayload) ? null : this.createFullUpdate(current);
+        }
+
+        if (null == base._payload) {
+            return this.createFullUpdate(current);
+        }
+
+        final CompoundNBT changes = new CompoundNBT();
+        final String[] removedKeys = ModSyncableTileMessage.diff(base._payload, current._payload, changes);
+
+        if (changes.isEmpty() && 0 == removedKeys.length) {
+            return null;
+        }
+
+        return ModSyncableTileMessage.delta(this._coordinates.get(), this._nested, base._version, current._version,
+                changes, removedKeys);
     }
 
     private void sendUpdate(final IModMessage update, final ServerPlayerEntity player) {
         Network.HANDLER.sendToPlayer(update, player);
     }
 
-    private final Supplier<IModMessage> _messageSupplier;
-    private final Set<ServerPlayerEntity> _players;
+    /**
+     * @return the squared horizontal distance of the player from the entity, or {@link Double#MAX_VALUE} if the player
+     * is in another world
+     */
+    private double getDistanceSquared(final ServerPlayerEntity player) {
+
+        if (null != this._world && this._world != player.level) {
+            return Double.MAX_VALUE;
+        }
+
+        final BlockPos position = this._coordinates.get();
+        final double dx = player.getX() - (position.getX() + 0.5);
+        final double dz = player.getZ() - (position.getZ() + 0.5);
+
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * @return true if the player has a GUI open on the entity, or on a part of the multiblock machine the entity is
+     */
+    private boolean isGuiOpen(final ServerPlayerEntity player) {
+
+        if (!(player.containerMenu instanceof ModTileContainer)) {
+            return false;
+        }
+
+        final TileEntity tile = ((ModTileContainer<?>)player.containerMenu).getTileEntity();
+        final ISyncableEntity entity = this._entity.get();
+
+        if (null == entity) {
+            return false;
+        }
+
+        if (tile == entity) {
+            return true;
+        }
+
+        if (tile instanceof INestedSyncableEntity &&
+                ((INestedSyncableEntity)tile).getNestedSyncableEntity().filter(nested -> nested == entity).isPresent()) {
+            return true;
+        }
+
+        return tile instanceof IMultiblockPart &&
+                ((IMultiblockPart<?>)tile).getMultiblockController().filter(controller -> controller == entity).isPresent();
+    }
+
+    private static double getTrackingRangeSquared(final ServerPlayerEntity player) {
+
+        final double range = player.server.getPlayerList().getViewDistance() * 16.0;
+
+        return range * range;
+    }
+
+    private static boolean isConnectionBacklogged(final ServerPlayerEntity player) {
+
+        final Channel channel = player.connection.connection.channel();
+
+        return null != channel && !channel.isWritable();
+    }
+
+    private int getUpdateInterval(final ServerPlayerEntity player, final double distanceSquared, final PlayerState state) {
+
+        // a player with a GUI open is looking at the entity data: keep it up to date
+        final int interval = this.isGuiOpen(player) ? 1 :
+                1 + (int)(Math.sqrt(distanceSquared) / UPDATE_DISTANCE_STEP);
+
+        return Math.min(MAX_UPDATE_INTERVAL, interval * state._backoff);
+    }
+
+    private static final class PlayerState {
+
+        PlayerState() {
+
+            this._sent = null;
+            this._updatesSinceFullUpdate = 0;
+            this._callsSinceUpdate = MAX_UPDATE_INTERVAL;
+            this._backoff = 1;
+        }
+
+        /**
+         * Stop sending updates to the player: the full data will be sent when the player is back in range
+         */
+        void suspend() {
+
+            this._sent = null;
+            this._callsSinceUpdate = MAX_UPDATE_INTERVAL;
+        }
+
+        /**
+         * Forget the data sent to the player: the full data will be sent with the next update
+         */
+        void reset() {
+
+            this._sent = null;
+            this._updatesSinceFullUpdate = 0;
+            this._callsSinceUpdate = MAX_UPDATE_INTERVAL;
+        }
+
+        /**
+         * Double the update interval while the player connection is backlogged and then slowly bring it back to normal
+         */
+        void updateBackoff(final boolean backlogged) {
+
+            if (backlogged) {
+                this._backoff = Math.min(MAX_BACKOFF, this._backoff * 2);
+            } else if (this._backoff > 1) {
+                --this._backoff;
+            }
+        }
+
+        boolean isUpdateDue(final int interval) {
+
+            if (this._callsSinceUpdate < interval) {
+                ++this._callsSinceUpdate;
+            }
+
+            if (this._callsSinceUpdate < interval) {
+                return false;
+            }
+
+            this._callsSinceUpdate = 0;
+            return true;
+        }
+
+        private static final int MAX_BACKOFF = 8;
+
+        // the last data sent to the player (null if nothing was sent yet)
+        SentPayload _sent;
+        int _updatesSinceFullUpdate;
+        int _callsSinceUpdate;
+        int _backoff;
+    }
+
+    private static final class SentPayload {
+
+        SentPayload(final int version, final CompoundNBT payload) {
+
+            this._version = version;
+            this._payload = payload;
+            this._binaryPayload = null;
+        }
+
+        SentPayload(final byte[] binaryPayload) {
+
+            this._version = 0;
+            this._payload = null;
+            this._binaryPayload = binaryPayload;
+        }
+
+        final int _version;
+        final CompoundNBT _payload;
+        final byte[] _binaryPayload;
+    }
+
+    private final NonNullSupplier<BlockPos> _coordinates;
+    private final Supplier<ISyncableEntity> _entity;
+    private final boolean _nested;
+
+    private final World _world;
+
+    // the enlisted players and their update state
+    private final Reference2ObjectMap<ServerPlayerEntity, PlayerState> _players;
+
+    private int _fullUpdateInterval;
+    private int _nextVersion;
 
     //endregion
 }
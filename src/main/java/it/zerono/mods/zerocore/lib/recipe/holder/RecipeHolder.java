@@ -20,16 +20,18 @@ package it.zerono.mods.zerocore.lib.recipe.holder;
 
 import it.unimi.dsi.fastutil.booleans.BooleanConsumer;
 import it.zerono.mods.zerocore.lib.CodeHelper;
-import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.IBinarySyncableEntity;
+import it.zerono.mods.zerocore.lib.data.nbt.SyncSchema;
 import it.zerono.mods.zerocore.lib.recipe.ModRecipe;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
 
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.*;
 
 public class RecipeHolder<Recipe extends ModRecipe>
-        implements IRecipeHolder<Recipe>, ISyncableEntity {
+        implements IRecipeHolder<Recipe>, IBinarySyncableEntity {
 
     /**
      * Return a builder to construct a new RecipeHolder
@@ -189,6 +191,29 @@ public class RecipeHolder<Recipe extends ModRecipe>
         return data;
     }
 
+    //endregion
+    //region IBinarySyncableEntity
+
+    /**
+     * Sync the entity data from the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to read from
+     */
+    @Override
+    public void syncDataFrom(final PacketBuffer buffer) {
+        SYNC_SCHEMA.read(this, buffer);
+    }
+
+    /**
+     * Sync the entity data to the given {@link PacketBuffer}
+     *
+     * @param buffer the {@link PacketBuffer} to write to
+     */
+    @Override
+    public void syncDataTo(final PacketBuffer buffer) {
+        SYNC_SCHEMA.write(this, buffer);
+    }
+
     //endregion
     //region builder
 
@@ -286,6 +311,15 @@ public class RecipeHolder<Recipe extends ModRecipe>
         this._recipeChanged = Objects.requireNonNull(builder._recipeChanged);
     }
 
+    private static final SyncSchema<RecipeHolder<?>> SYNC_SCHEMA = SyncSchema.<RecipeHolder<?>>builder()
+            .addVarInt(h -> null != h._recipe ? h._recipe.getCurrentTick() : 0,
+                    (h, tick) -> {
+                        if (null != h._recipe) {
+                            h._recipe.loadCurrentTick(tick);
+                        }
+                    })
+            .build();
+
     private final Function<IRecipeHolder<Recipe>, IHeldRecipe<Recipe>> _factory;
     private final ToIntFunction<Recipe> _requiredTicks;
     private final BooleanConsumer _statusChanged;
@@ -0,0 +1,140 @@
+/*
+ *
+ * BlockStateSnapshot.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.world;
+
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.chunk.Chunk;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * An immutable copy of the block states inside a cuboid volume of a world.
+ *
+ * Once taken, the snapshot could be safely read by any thread.
+ * Tile entities are not part of the snapshot: {@link #getBlockEntity(BlockPos)} always return null.
+ */
+public class BlockStateSnapshot
+        implements IBlockReader {
+
+    /**
+     * Take a snapshot of the block states inside the given volume using the chunks available in a {@link ChunkCache}.
+     * Must be called from the thread that own the world.
+     *
+     * @param chunkCache the chunks cache to use
+     * @param volume the volume to copy
+     * @return the snapshot or an empty {@link Optional} if some of the chunks covering the volume are not loaded
+     */
+    public static Optional<BlockStateSnapshot> from(final ChunkCache chunkCache, final CuboidBoundingBox volume) {
+
+        if (volume.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final BlockStateSnapshot snapshot = new BlockStateSnapshot(volume);
+        final BlockPos.Mutable position = new BlockPos.Mutable();
+        final int minX = volume.getMinX(), minY = volume.getMinY(), minZ = volume.getMinZ();
+        final int maxX = volume.getMaxX(), maxY = volume.getMaxY(), maxZ = volume.getMaxZ();
+
+        // copy the volume one chunk column at the time
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; ++chunkX) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; ++chunkZ) {
+
+                final Chunk chunk = chunkCache.get(position.set(chunkX << 4, minY, chunkZ << 4));
+
+                if (null == chunk) {
+                    return Optional.empty();
+                }
+
+                final int fromX = Math.max(minX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+                final int fromZ = Math.max(minZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+                for (int x = fromX; x <= toX; ++x) {
+                    for (int y = minY; y <= maxY; ++y) {
+                        for (int z = fromZ; z <= toZ; ++z) {
+                            snapshot._states[snapshot.indexOf(x, y, z)] = chunk.getBlockState(position.set(x, y, z));
+                        }
+                    }
+                }
+            }
+        }
+
+        return Optional.of(snapshot);
+    }
+
+    public boolean contains(final int x, final int y, final int z) {
+        return x >= this._minX && x <= this._maxX && y >= this._minY && y <= this._maxY && z >= this._minZ && z <= this._maxZ;
+    }
+
+    public BlockState getBlockState(final int x, final int y, final int z) {
+        return this.contains(x, y, z) ? this._states[this.indexOf(x, y, z)] : Blocks.AIR.defaultBlockState();
+    }
+
+    //region IBlockReader
+
+    @Nullable
+    @Override
+    public TileEntity getBlockEntity(final BlockPos position) {
+        return null;
+    }
+
+    @Override
+    public BlockState getBlockState(final BlockPos position) {
+        return this.getBlockState(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Override
+    public FluidState getFluidState(final BlockPos position) {
+        return this.getBlockState(position).getFluidState();
+    }
+
+    //endregion
+    //region internals
+
+    private BlockStateSnapshot(final CuboidBoundingBox volume) {
+
+        this._minX = volume.getMinX();
+        this._minY = volume.getMinY();
+        this._minZ = volume.getMinZ();
+        this._maxX = volume.getMaxX();
+        this._maxY = volume.getMaxY();
+        this._maxZ = volume.getMaxZ();
+        this._lengthY = volume.getLengthY();
+        this._lengthZ = volume.getLengthZ();
+        this._states = new BlockState[volume.getVolume()];
+    }
+
+    private int indexOf(final int x, final int y, final int z) {
+        return ((x - this._minX) * this._lengthY + (y - this._minY)) * this._lengthZ + (z - this._minZ);
+    }
+
+    private final int _minX, _minY, _minZ;
+    private final int _maxX, _maxY, _maxZ;
+    private final int _lengthY, _lengthZ;
+    private final BlockState[] _states;
+
+    //endregion
+}
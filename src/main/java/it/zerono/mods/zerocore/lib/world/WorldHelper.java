@@ -140,6 +140,17 @@ public final class WorldHelper {
         ZeroCore.getProxy().markBlockRangeForRenderUpdate(min, max);
     }
 
+    /**
+     * Schedule a render update for the chunk section containing the given block, without touching the blocks around it.
+     * Use this when only the model data of the block is changed. Repeated requests for the same section within a frame
+     * are coalesced. On the server, this does nothing
+     *
+     * @param position the position of the block
+     */
+    public static void markBlockForRenderUpdate(BlockPos position) {
+        ZeroCore.getProxy().markBlockForRenderUpdate(position);
+    }
+
     /**
      * MC-Version independent wrapper around World::notifyNeighborsOfStateChange()
      */
@@ -0,0 +1,186 @@
+/*
+ *
+ * ConnectedPartsVisitorTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.storage.PartStorage;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test for the parallel visit of {@link ConnectedPartsVisitor}: on random graphs of about 200k parts, with
+ * many disconnected components, the parallel visit must reach exactly the same parts of the sequential one
+ */
+class ConnectedPartsVisitorTest {
+
+    /**
+     * Every position of a 96x48x96 box holds a part with a 45% chance: well above the percolation threshold of the
+     * cubic lattice, so the graph has a giant component and thousands of small ones
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 2L, 3L})
+    void randomGraph(final long seed) {
+
+        final Random random = new Random(seed);
+        final LongSet positions = new LongOpenHashSet(256 * 1024);
+
+        for (int x = 0; x < 96; ++x) {
+            for (int y = 0; y < 48; ++y) {
+                for (int z = 0; z < 96; ++z) {
+                    if (random.nextInt(100) < 45) {
+                        positions.add(BlockPos.asLong(x, y, z));
+                    }
+                }
+            }
+        }
+
+        assertTrue(positions.size() > 180_000);
+
+        // start from a random part and from the lowest one
+
+        final long[] hashes = positions.toLongArray();
+        final long randomPart = hashes[random.nextInt(hashes.length)];
+        final long lowestPart = Arrays.stream(hashes).min().getAsLong();
+
+        assertTrue(compare("random graph, seed " + seed, positions, randomPart, 0) < positions.size());
+        assertTrue(compare("random graph, seed " + seed + ", lowest part", positions, lowestPart, 0) < positions.size());
+    }
+
+    /**
+     * Four solid slabs of 50k parts each, separated by empty layers, with a share of the parts replaced by their
+     * positions only, as the parts of a paused machine in unloaded chunks are
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 50})
+    void disconnectedSlabs(final int unloadedPercentage) {
+
+        final LongSet positions = new LongOpenHashSet(256 * 1024);
+
+        for (int slab = 0; slab < 4; ++slab) {
+            for (int x = 0; x < 250; ++x) {
+                for (int y = slab * 6; y < slab * 6 + 5; ++y) {
+                    for (int z = 0; z < 40; ++z) {
+                        positions.add(BlockPos.asLong(x, y, z));
+                    }
+                }
+            }
+        }
+
+        // start from the third slab: only the loaded parts of that slab must be visited
+
+        final long firstPosition = BlockPos.asLong(100, 14, 20);
+        final int visited = compare("disconnected slabs, " + unloadedPercentage + "% unloaded", positions,
+                firstPosition, unloadedPercentage);
+        final Graph graph = new Graph(positions, firstPosition, unloadedPercentage);
+        final int thirdSlabLoadedParts = (int)graph.parts.stream()
+                .filter(part -> part.getWorldPosition().getY() >= 12 && part.getWorldPosition().getY() < 17)
+                .count();
+
+        assertEquals(thirdSlabLoadedParts, visited);
+    }
+
+    //region internals
+
+    /**
+     * Run the sequential and the parallel visits on two copies of the same graph and check that they visit the
+     * same parts
+     *
+     * @return the number of visited (loaded) parts
+     */
+    private static int compare(final String name, final LongSet positions, final long firstPosition,
+                               final int unloadedPercentage) {
+
+        final Graph sequential = new Graph(positions, firstPosition, unloadedPercentage);
+        final Graph parallel = new Graph(positions, firstPosition, unloadedPercentage);
+        final Graph parallelAgain = new Graph(positions, firstPosition, unloadedPercentage);
+
+        ScenarioMeter.run(name + " sequential visit", positions.size(), () ->
+                ConnectedPartsVisitor.visit(sequential.get(firstPosition), sequential.parts, sequential.morePositions,
+                        new NeighboringPositions()));
+
+        ScenarioMeter.run(name + " parallel visit", positions.size(), () ->
+                assertTrue(ConnectedPartsVisitor.visitInParallel(parallel.get(firstPosition), parallel.parts,
+                        parallel.morePositions, NeighboringPositions::new)));
+
+        assertTrue(ConnectedPartsVisitor.visitInParallel(parallelAgain.get(firstPosition), parallelAgain.parts,
+                parallelAgain.morePositions, NeighboringPositions::new));
+
+        final LongSet expected = sequential.visited();
+
+        assertTrue(expected.contains(firstPosition));
+        assertEquals(expected, parallel.visited());
+        assertEquals(expected, parallelAgain.visited());
+        return expected.size();
+    }
+
+    private static final class Graph {
+
+        Graph(final LongSet positions, final long firstPosition, final int unloadedPercentage) {
+
+            final Random random = new Random(positions.size());
+
+            this.parts = new PartStorage<>();
+            this.morePositions = unloadedPercentage > 0 ? new LongOpenHashSet(positions.size()) : null;
+
+            // the search always start from a loaded part
+
+            for (final long hash : positions) {
+                if (null != this.morePositions && hash != firstPosition && random.nextInt(100) < unloadedPercentage) {
+                    this.morePositions.add(hash);
+                } else {
+                    this.parts.addOrReplace(MultiblockStubs.part(BlockPos.of(hash)));
+                }
+            }
+        }
+
+        IMultiblockPart<StubController> get(final long position) {
+            return this.parts.get(position);
+        }
+
+        LongSet visited() {
+
+            final LongSet visited = new LongOpenHashSet();
+
+            for (final IMultiblockPart<StubController> part : this.parts) {
+                if (!part.isNotVisited()) {
+                    visited.add(part.getWorldPositionHash());
+                }
+            }
+
+            return visited;
+        }
+
+        final IPartStorage<StubController> parts;
+        @Nullable
+        final LongSet morePositions;
+    }
+
+    //endregion
+}
@@ -0,0 +1,216 @@
+/*
+ *
+ * PartsBoundsTrackerTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenario drivers for {@link PartsBoundsTracker}: the bounding box and the first valid part are checked against the
+ * ones computed by visiting all the tracked parts
+ */
+class PartsBoundsTrackerTest {
+
+    @Test
+    void massPlacementAndRandomBreaks() {
+
+        final PartsBoundsTracker<StubController> tracker = new PartsBoundsTracker<>();
+        final ObjectList<IMultiblockPart<StubController>> parts = randomParts(new Random(SEED), PARTS, 0);
+        final Random random = new Random(SEED);
+
+        ScenarioMeter.run("bounds tracker mass placement", parts.size(), () -> parts.forEach(tracker::add));
+        assertMatches(parts, tracker);
+
+        // break the parts in random order, checking the bounds every now and then
+
+        final ObjectList<IMultiblockPart<StubController>> remaining = new ObjectArrayList<>(parts);
+
+        Collections.shuffle(remaining, random);
+
+        ScenarioMeter.run("bounds tracker random breaks", remaining.size(), () -> {
+
+            while (!remaining.isEmpty()) {
+
+                tracker.remove(remaining.remove(remaining.size() - 1));
+
+                if (0 == remaining.size() % 1000) {
+                    assertMatches(remaining, tracker);
+                }
+            }
+        });
+
+        assertTrue(tracker.isEmpty());
+        assertSame(CuboidBoundingBox.EMPTY, tracker.boundingBox());
+        assertNull(tracker.getFirstValidPart());
+    }
+
+    @Test
+    void chunkUnloadReload() {
+
+        final PartsBoundsTracker<StubController> tracker = new PartsBoundsTracker<>();
+        final ObjectList<IMultiblockPart<StubController>> parts = randomParts(new Random(SEED), PARTS, 0);
+        final ObjectList<IMultiblockPart<StubController>> kept = new ObjectArrayList<>(parts.size());
+        final ObjectList<IMultiblockPart<StubController>> unloaded = new ObjectArrayList<>(parts.size());
+        final ObjectList<IMultiblockPart<StubController>> reloaded = new ObjectArrayList<>(parts.size());
+
+        parts.forEach(tracker::add);
+
+        for (final IMultiblockPart<StubController> part : parts) {
+
+            if (part.getWorldPosition().getX() < 0) {
+
+                unloaded.add(part);
+                reloaded.add(MultiblockStubs.part(part.getWorldPosition()));
+
+            } else {
+
+                kept.add(part);
+            }
+        }
+
+        ScenarioMeter.run("bounds tracker chunk unload", unloaded.size(), () -> unloaded.forEach(tracker::remove));
+        assertMatches(kept, tracker);
+
+        ScenarioMeter.run("bounds tracker chunk reload", reloaded.size(), () -> reloaded.forEach(tracker::add));
+        kept.addAll(reloaded);
+        assertMatches(kept, tracker);
+
+        // replacing a part at the same position does not change the bounds
+
+        final IMultiblockPart<StubController> replacement = MultiblockStubs.part(kept.get(0).getWorldPosition());
+
+        tracker.add(replacement);
+        kept.set(0, replacement);
+        assertMatches(kept, tracker);
+    }
+
+    @Test
+    void invalidParts() {
+
+        final PartsBoundsTracker<StubController> tracker = new PartsBoundsTracker<>();
+        final ObjectList<IMultiblockPart<StubController>> parts = randomParts(new Random(SEED), 1000, 0);
+        final Random random = new Random(SEED);
+
+        parts.forEach(tracker::add);
+
+        for (final IMultiblockPart<StubController> part : parts) {
+            MultiblockStubs.setPartInvalid(part, 0 != random.nextInt(10));
+        }
+
+        assertMatches(parts, tracker);
+        parts.forEach(part -> MultiblockStubs.setPartInvalid(part, true));
+        assertNull(tracker.getFirstValidPart());
+    }
+
+    @Test
+    void mergeMachines() {
+
+        final ObjectList<PartsBoundsTracker<StubController>> trackers = new ObjectArrayList<>(MACHINES);
+        final ObjectList<IMultiblockPart<StubController>> parts = new ObjectArrayList<>();
+        final Random random = new Random(SEED);
+
+        for (int i = 0; i < MACHINES; ++i) {
+
+            final PartsBoundsTracker<StubController> tracker = new PartsBoundsTracker<>();
+            final ObjectList<IMultiblockPart<StubController>> machineParts = randomParts(random, PARTS / MACHINES, i * 1000);
+
+            machineParts.forEach(tracker::add);
+            parts.addAll(machineParts);
+            trackers.add(tracker);
+        }
+
+        @SuppressWarnings("unchecked")
+        final PartsBoundsTracker<StubController>[] merged = new PartsBoundsTracker[] {trackers.get(0)};
+
+        ScenarioMeter.run("bounds tracker merge " + MACHINES + " machines", parts.size(), () -> {
+            for (int i = 1; i < MACHINES; ++i) {
+                merged[0] = merged[0].merge(trackers.get(i));
+            }
+        });
+
+        assertMatches(parts, merged[0]);
+    }
+
+    //region internals
+
+    /**
+     * Generate parts at random, different, positions in a box of 256x64x256 blocks centered on (offsetX, 64, 0)
+     */
+    private static ObjectList<IMultiblockPart<StubController>> randomParts(final Random random, final int count,
+                                                                           final int offsetX) {
+
+        final ObjectList<IMultiblockPart<StubController>> parts = new ObjectArrayList<>(count);
+        final LongSet used = new LongOpenHashSet(count);
+
+        while (parts.size() < count) {
+
+            final BlockPos position = new BlockPos(offsetX + random.nextInt(256) - 128, 32 + random.nextInt(64),
+                    random.nextInt(256) - 128);
+
+            if (used.add(position.asLong())) {
+                parts.add(MultiblockStubs.part(position));
+            }
+        }
+
+        return parts;
+    }
+
+    private static void assertMatches(final ObjectList<IMultiblockPart<StubController>> expected,
+                                      final PartsBoundsTracker<StubController> tracker) {
+
+        assertEquals(expected.size(), tracker.size());
+
+        if (expected.isEmpty()) {
+            return;
+        }
+
+        CuboidBoundingBox box = CuboidBoundingBox.EMPTY;
+        IMultiblockPart<StubController> first = null;
+
+        for (final IMultiblockPart<StubController> part : expected) {
+
+            box = box.add(part.getWorldPosition());
+
+            if (!part.isPartInvalid() &&
+                    (null == first || part.getWorldPosition().compareTo(first.getWorldPosition()) < 0)) {
+                first = part;
+            }
+        }
+
+        assertEquals(box, tracker.boundingBox());
+        assertSame(first, tracker.getFirstValidPart());
+    }
+
+    private static final int PARTS = 50_000;
+    private static final int MACHINES = 16;
+    private static final long SEED = 0x2E40C0DEL;
+
+    //endregion
+}
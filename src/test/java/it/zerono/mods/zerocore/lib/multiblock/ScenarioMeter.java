@@ -0,0 +1,91 @@
+/*
+ *
+ * ScenarioMeter.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.zerono.mods.zerocore.internal.Log;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure the throughput and the memory allocated by each operation of a scenario and log them on the multiblock marker.
+ *
+ * Only the memory allocated by the calling thread is counted: the work done by other threads (parallel streams,
+ * fork/join tasks) is not included in the allocation report. The reports are meant to spot regressions between runs
+ * on the same machine, use the JMH benchmarks for accurate numbers
+ */
+public final class ScenarioMeter {
+
+    /**
+     * Run a scenario and report its throughput and allocations
+     *
+     * @param name the name of the scenario
+     * @param operations the number of operations performed by the scenario
+     * @param scenario the scenario to run
+     */
+    public static void run(final String name, final int operations, final Runnable scenario) {
+
+        final long startAllocation = allocatedBytes();
+        final long startTime = System.nanoTime();
+
+        scenario.run();
+
+        final long elapsed = Math.max(1, System.nanoTime() - startTime);
+        final long allocated = allocatedBytes() - startAllocation;
+        final int count = Math.max(1, operations);
+
+        if (startAllocation >= 0) {
+            //noinspection AutoBoxing
+            Log.LOGGER.info(Log.MULTIBLOCK, "[scenario] {}: {} ops, {} ops/s, {} bytes/op", name, operations,
+                    Math.round(count * 1e9 / elapsed), allocated / count);
+        } else {
+            //noinspection AutoBoxing
+            Log.LOGGER.info(Log.MULTIBLOCK, "[scenario] {}: {} ops, {} ops/s", name, operations,
+                    Math.round(count * 1e9 / elapsed));
+        }
+    }
+
+    //region internals
+
+    private static long allocatedBytes() {
+        return null != s_threadBean ? s_threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static final com.sun.management.ThreadMXBean s_threadBean;
+
+    static {
+
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) {
+
+            ((com.sun.management.ThreadMXBean)bean).setThreadAllocatedMemoryEnabled(true);
+            s_threadBean = (com.sun.management.ThreadMXBean)bean;
+
+        } else {
+
+            s_threadBean = null;
+        }
+    }
+
+    private ScenarioMeter() {
+    }
+
+    //endregion
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ * CuboidValidationPlanTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.cuboid;
+
+import it.zerono.mods.zerocore.lib.block.BlockFacings;
+import it.zerono.mods.zerocore.lib.multiblock.ScenarioMeter;
+import it.zerono.mods.zerocore.lib.multiblock.cuboid.CuboidValidationPlan.PositionClass;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenario drivers for {@link CuboidValidationPlan}: every position of machines of many sizes is classified by the
+ * plan and by the per-block checks the cuboid validation used before the plans were introduced, and the results
+ * must be the same
+ */
+class CuboidValidationPlanTest {
+
+    @Test
+    void sameClassificationAsPerBlockChecks() {
+
+        for (int lengthX = 1; lengthX <= MAX_LENGTH; ++lengthX) {
+            for (int lengthY = 1; lengthY <= MAX_LENGTH; ++lengthY) {
+                for (int lengthZ = 1; lengthZ <= MAX_LENGTH; ++lengthZ) {
+
+                    final CuboidValidationPlan plan = CuboidValidationPlan.of(lengthX, lengthY, lengthZ);
+
+                    assertEquals(lengthX, plan.getLengthX());
+                    assertEquals(lengthY, plan.getLengthY());
+                    assertEquals(lengthZ, plan.getLengthZ());
+
+                    for (int x = 0; x < lengthX; ++x) {
+                        for (int y = 0; y < lengthY; ++y) {
+                            for (int z = 0; z < lengthZ; ++z) {
+
+                                final int classCode = plan.classify(x, y, z);
+                                final Expected expected = new Expected(x, y, z, lengthX - 1, lengthY - 1, lengthZ - 1);
+
+                                assertEquals(expected.positionClass, CuboidValidationPlan.positionClassOf(classCode));
+                                assertEquals(expected.partPosition, CuboidValidationPlan.partPositionOf(classCode));
+                                assertEquals(expected.facings, CuboidValidationPlan.facingsOf(classCode));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void positionsOutsideThePlan() {
+
+        final CuboidValidationPlan plan = CuboidValidationPlan.of(3, 4, 5);
+
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(-1, 0, 0));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(0, -1, 0));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(0, 0, -1));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(3, 0, 0));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(0, 4, 0));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(0, 0, 5));
+        assertEquals(CuboidValidationPlan.OUTSIDE, plan.classify(Integer.MIN_VALUE, Integer.MAX_VALUE, 2));
+        assertNotEquals(CuboidValidationPlan.OUTSIDE, plan.classify(2, 3, 4));
+    }
+
+    @Test
+    void plansAreShared() {
+
+        final CuboidValidationPlan plan = CuboidValidationPlan.of(5, 6, 7);
+
+        assertSame(plan, CuboidValidationPlan.of(5, 6, 7));
+        assertNotSame(plan, CuboidValidationPlan.of(7, 6, 5));
+    }
+
+    @Test
+    void classifyBigMachine() {
+
+        final int length = 128;
+        final CuboidValidationPlan plan = CuboidValidationPlan.of(length, length, length);
+        final int[] classes = new int[PositionClass.values().length];
+
+        ScenarioMeter.run("validation plan classify " + length + "^3 positions", length * length * length, () -> {
+            for (int x = 0; x < length; ++x) {
+                for (int y = 0; y < length; ++y) {
+                    for (int z = 0; z < length; ++z) {
+                        ++classes[CuboidValidationPlan.positionClassOf(plan.classify(x, y, z)).ordinal()];
+                    }
+                }
+            }
+        });
+
+        final int inner = length - 2;
+
+        assertEquals(inner * inner * inner, classes[PositionClass.Interior.ordinal()]);
+        assertEquals(inner * inner, classes[PositionClass.Top.ordinal()]);
+        assertEquals(inner * inner, classes[PositionClass.Bottom.ordinal()]);
+        assertEquals(4 * inner * inner, classes[PositionClass.Sides.ordinal()]);
+        assertEquals(12 * inner + 8, classes[PositionClass.Frame.ordinal()]);
+    }
+
+    //region internals
+
+    /**
+     * The classification of a position as computed by the per-block checks of the cuboid validation
+     */
+    private static final class Expected {
+
+        Expected(final int x, final int y, final int z, final int maxX, final int maxY, final int maxZ) {
+
+            int extremes = 0;
+            final boolean westFacing = 0 == x;
+            final boolean eastFacing = maxX == x;
+            final boolean downFacing = 0 == y;
+            final boolean upFacing = maxY == y;
+            final boolean northFacing = 0 == z;
+            final boolean southFacing = maxZ == z;
+
+            extremes += westFacing ? 1 : 0;
+            extremes += eastFacing ? 1 : 0;
+            extremes += downFacing ? 1 : 0;
+            extremes += upFacing ? 1 : 0;
+            extremes += northFacing ? 1 : 0;
+            extremes += southFacing ? 1 : 0;
+
+            if (extremes >= 2) {
+
+                this.positionClass = PositionClass.Frame;
+
+                if (!eastFacing && !westFacing) {
+                    this.partPosition = PartPosition.FrameEastWest;
+                } else if (!southFacing && !northFacing) {
+                    this.partPosition = PartPosition.FrameSouthNorth;
+                } else {
+                    this.partPosition = PartPosition.FrameUpDown;
+                }
+
+            } else if (1 == extremes) {
+
+                if (upFacing) {
+
+                    this.positionClass = PositionClass.Top;
+                    this.partPosition = PartPosition.TopFace;
+
+                } else if (downFacing) {
+
+                    this.positionClass = PositionClass.Bottom;
+                    this.partPosition = PartPosition.BottomFace;
+
+                } else {
+
+                    this.positionClass = PositionClass.Sides;
+
+                    if (eastFacing) {
+                        this.partPosition = PartPosition.EastFace;
+                    } else if (westFacing) {
+                        this.partPosition = PartPosition.WestFace;
+                    } else if (southFacing) {
+                        this.partPosition = PartPosition.SouthFace;
+                    } else {
+                        this.partPosition = PartPosition.NorthFace;
+                    }
+                }
+
+            } else {
+
+                this.positionClass = PositionClass.Interior;
+                this.partPosition = PartPosition.Interior;
+            }
+
+            this.facings = BlockFacings.from(downFacing, upFacing, northFacing, southFacing, westFacing, eastFacing);
+        }
+
+        final PositionClass positionClass;
+        final PartPosition partPosition;
+        final BlockFacings facings;
+    }
+
+    private static final int MAX_LENGTH = 6;
+
+    //endregion
+}
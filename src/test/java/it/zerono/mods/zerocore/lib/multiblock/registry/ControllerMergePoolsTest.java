@@ -0,0 +1,170 @@
+/*
+ *
+ * ControllerMergePoolsTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.registry;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.ScenarioMeter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenario drivers for {@link ControllerMergePools}: the pools are checked against the connected components of the
+ * same merge requests computed with a plain (quick-find) union
+ */
+class ControllerMergePoolsTest {
+
+    @Test
+    void mergeChainOfMachines() {
+
+        final ObjectList<StubController> controllers = controllers(MACHINES);
+        final ControllerMergePools<StubController> pools = new ControllerMergePools<>();
+
+        // every orphan part touch two machines next to each other: all the machines end up in the same pool
+
+        ScenarioMeter.run("merge pools chain of " + MACHINES + " machines", MACHINES - 1, () -> {
+            for (int i = 1; i < MACHINES; ++i) {
+                pools.union(Arrays.asList(controllers.get(i - 1), controllers.get(i)));
+            }
+        });
+
+        final Collection<List<StubController>> result = pools.getPools();
+
+        assertEquals(1, result.size());
+        assertEquals(new ReferenceOpenHashSet<>(controllers), new ReferenceOpenHashSet<>(result.iterator().next()));
+    }
+
+    @Test
+    void mergeRandomGroups() {
+
+        final ObjectList<StubController> controllers = controllers(MACHINES);
+        final ObjectList<List<StubController>> requests = new ObjectArrayList<>(REQUESTS);
+        final ControllerMergePools<StubController> pools = new ControllerMergePools<>();
+        final int[] components = new int[MACHINES];
+        final Random random = new Random(SEED);
+
+        for (int i = 0; i < MACHINES; ++i) {
+            components[i] = i;
+        }
+
+        // each request is an orphan part touching 2 to 6 different machines
+
+        for (int r = 0; r < REQUESTS; ++r) {
+
+            final IntArrayList indices = new IntArrayList();
+            final int count = 2 + random.nextInt(5);
+
+            while (indices.size() < count) {
+
+                final int index = random.nextInt(MACHINES);
+
+                if (!indices.contains(index)) {
+                    indices.add(index);
+                }
+            }
+
+            final ObjectList<StubController> group = new ObjectArrayList<>(count);
+
+            for (int i = 0; i < count; ++i) {
+
+                group.add(controllers.get(indices.getInt(i)));
+                relabel(components, components[indices.getInt(i)], components[indices.getInt(0)]);
+            }
+
+            requests.add(group);
+        }
+
+        ScenarioMeter.run("merge pools " + REQUESTS + " random requests", REQUESTS,
+                () -> requests.forEach(pools::union));
+
+        int expectedPools = 0;
+        final Set<StubController> seen = new ReferenceOpenHashSet<>();
+
+        for (final List<StubController> pool : pools.getPools()) {
+
+            assertTrue(pool.size() >= 2);
+
+            final int component = components[controllers.indexOf(pool.get(0))];
+
+            for (final StubController controller : pool) {
+
+                assertTrue(seen.add(controller), "a controller is in more than one pool");
+                assertEquals(component, components[controllers.indexOf(controller)]);
+            }
+
+            ++expectedPools;
+        }
+
+        // every controller that was part of a request is in a pool, and the pools are the same as the components
+
+        final IntOpenHashSet labels = new IntOpenHashSet();
+
+        for (final List<StubController> group : requests) {
+            for (final StubController controller : group) {
+
+                assertTrue(seen.contains(controller));
+                labels.add(components[controllers.indexOf(controller)]);
+            }
+        }
+
+        assertEquals(labels.size(), expectedPools);
+    }
+
+    //region internals
+
+    private static ObjectList<StubController> controllers(final int count) {
+
+        final ObjectList<StubController> controllers = new ObjectArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            controllers.add(MultiblockStubs.controller("controller #" + i));
+        }
+
+        return controllers;
+    }
+
+    private static void relabel(final int[] components, final int from, final int to) {
+
+        if (from != to) {
+            for (int i = 0; i < components.length; ++i) {
+                if (components[i] == from) {
+                    components[i] = to;
+                }
+            }
+        }
+    }
+
+    private static final int MACHINES = 2048;
+    private static final int REQUESTS = 1024;
+    private static final long SEED = 0x2E40C0DEL;
+
+    //endregion
+}
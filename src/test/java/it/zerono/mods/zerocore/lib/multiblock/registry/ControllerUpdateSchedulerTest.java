@@ -0,0 +1,175 @@
+/*
+ *
+ * ControllerUpdateSchedulerTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.registry;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockController;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.ScenarioMeter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenario drivers for {@link ControllerUpdateScheduler}: the scheduler is run for many ticks with random update delays,
+ * sleeps, wake-ups, additions and removals and every tick the due controllers are checked against a plain map of the
+ * expected due tick of each controller
+ */
+class ControllerUpdateSchedulerTest {
+
+    @Test
+    void randomSchedules() {
+
+        final ControllerUpdateScheduler<StubController> scheduler = new ControllerUpdateScheduler<>();
+        final ObjectList<StubController> controllers = new ObjectArrayList<>(CONTROLLERS * 2);
+        final Reference2LongMap<StubController> expected = new Reference2LongOpenHashMap<>(CONTROLLERS * 2);
+        final Random random = new Random(SEED);
+        final long[] polled = {0};
+
+        for (int i = 0; i < CONTROLLERS; ++i) {
+
+            final StubController controller = MultiblockStubs.controller("controller #" + i);
+
+            controllers.add(controller);
+            scheduler.add(controller);
+            expected.put(controller, 0);
+        }
+
+        ScenarioMeter.run("update scheduler " + CONTROLLERS + " controllers for " + TICKS + " ticks", TICKS, () -> {
+
+            for (long tick = 0; tick < TICKS; ++tick) {
+
+                final List<StubController> due = scheduler.pollDue();
+                final Set<StubController> dueSet = new ReferenceOpenHashSet<>(due);
+
+                assertEquals(due.size(), dueSet.size(), "a controller was polled twice in the same tick");
+
+                for (final Reference2LongMap.Entry<StubController> entry : expected.reference2LongEntrySet()) {
+                    assertEquals(entry.getLongValue() == tick, dueSet.contains(entry.getKey()),
+                            "wrong schedule for " + entry.getKey() + " at tick " + tick);
+                }
+
+                polled[0] += due.size();
+
+                // some controllers are woken up while they are being updated
+
+                for (final StubController controller : due) {
+
+                    expected.put(controller, SLEEPING);
+
+                    if (0 == random.nextInt(16)) {
+                        wakeUp(scheduler, expected, controller, tick);
+                    }
+
+                    final int delay = 0 == random.nextInt(8) ? IMultiblockController.UPDATE_SLEEP : 1 + random.nextInt(200);
+
+                    scheduler.reschedule(controller, delay);
+
+                    if (delay >= 1) {
+                        expected.put(controller, Math.min(expected.getLong(controller), tick + delay));
+                    }
+                }
+
+                // wake up, add and remove some controllers
+
+                for (int i = 0; i < 8; ++i) {
+                    wakeUp(scheduler, expected, controllers.get(random.nextInt(controllers.size())), tick);
+                }
+
+                if (0 == random.nextInt(4)) {
+
+                    final StubController controller = MultiblockStubs.controller("controller #" + controllers.size());
+
+                    controllers.add(controller);
+                    scheduler.add(controller);
+                    expected.put(controller, tick + 1);
+                }
+
+                if (0 == random.nextInt(4)) {
+
+                    final StubController controller = controllers.get(random.nextInt(controllers.size()));
+
+                    scheduler.remove(controller);
+                    expected.removeLong(controller);
+                }
+
+                for (final Reference2LongMap.Entry<StubController> entry : expected.reference2LongEntrySet()) {
+                    assertEquals(SLEEPING == entry.getLongValue(), scheduler.isSleeping(entry.getKey()));
+                }
+            }
+        });
+
+        assertTrue(polled[0] > 0);
+    }
+
+    @Test
+    void removedControllersAreNotUpdated() {
+
+        final ControllerUpdateScheduler<StubController> scheduler = new ControllerUpdateScheduler<>();
+        final StubController kept = MultiblockStubs.controller("kept");
+        final StubController removed = MultiblockStubs.controller("removed");
+
+        scheduler.add(kept);
+        scheduler.add(removed);
+        scheduler.remove(removed);
+        scheduler.wakeUp(removed);
+        scheduler.reschedule(removed, 1);
+
+        for (int tick = 0; tick < 128; ++tick) {
+
+            final List<StubController> due = scheduler.pollDue();
+
+            assertFalse(due.contains(removed));
+            assertTrue(due.contains(kept));
+            scheduler.reschedule(kept, 1);
+        }
+
+        assertEquals(1.0, scheduler.getUpdateRate(kept));
+        assertEquals(0.0, scheduler.getUpdateRate(removed));
+    }
+
+    //region internals
+
+    private static void wakeUp(final ControllerUpdateScheduler<StubController> scheduler,
+                               final Reference2LongMap<StubController> expected, final StubController controller,
+                               final long tick) {
+
+        scheduler.wakeUp(controller);
+
+        if (expected.containsKey(controller)) {
+            expected.put(controller, Math.min(expected.getLong(controller), tick + 1));
+        }
+    }
+
+    private static final int CONTROLLERS = 512;
+    private static final int TICKS = 1000;
+    private static final long SLEEPING = Long.MAX_VALUE;
+    private static final long SEED = 0x2E40C0DEL;
+
+    //endregion
+}
@@ -0,0 +1,268 @@
+/*
+ *
+ * PartStorageScenarioTest.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock.storage;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.zerono.mods.zerocore.lib.data.geometry.CuboidBoundingBox;
+import it.zerono.mods.zerocore.lib.multiblock.IMultiblockPart;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs;
+import it.zerono.mods.zerocore.lib.multiblock.MultiblockStubs.StubController;
+import it.zerono.mods.zerocore.lib.multiblock.ScenarioMeter;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scenario drivers for the {@link IPartStorage} implementations: every scenario is checked against a plain map of the
+ * expected parts
+ */
+class PartStorageScenarioTest {
+
+    static Stream<Arguments> storages() {
+        return Stream.of(
+                Arguments.of("PartStorage", (Supplier<IPartStorage<StubController>>)PartStorage::new),
+                Arguments.of("HashPartStorage", (Supplier<IPartStorage<StubController>>)HashPartStorage::new));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("storages")
+    void massPlacement(final String name, final Supplier<IPartStorage<StubController>> factory) {
+
+        final IPartStorage<StubController> storage = factory.get();
+        final ObjectList<IMultiblockPart<StubController>> parts = cuboid(0, 0, 0, SIZE_X, SIZE_Y, SIZE_Z);
+
+        ScenarioMeter.run(name + " mass placement", parts.size(), () -> parts.forEach(storage::addOrReplace));
+
+        assertEquals(parts.size(), storage.size());
+        assertMatches(toMap(parts), storage);
+        assertEquals(new CuboidBoundingBox(0, 0, 0, SIZE_X - 1, SIZE_Y - 1, SIZE_Z - 1), storage.boundingBox());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("storages")
+    void randomBreaks(final String name, final Supplier<IPartStorage<StubController>> factory) {
+
+        final IPartStorage<StubController> storage = factory.get();
+        final ObjectList<IMultiblockPart<StubController>> parts = cuboid(0, 0, 0, SIZE_X, SIZE_Y, SIZE_Z);
+        final Long2ObjectMap<IMultiblockPart<StubController>> expected = toMap(parts);
+        final ObjectList<IMultiblockPart<StubController>> broken = new ObjectArrayList<>();
+        final Random random = new Random(SEED);
+
+        parts.forEach(storage::addOrReplace);
+
+        for (final IMultiblockPart<StubController> part : parts) {
+            if (random.nextInt(5) == 0) {
+
+                broken.add(part);
+                expected.remove(part.getWorldPositionHash());
+            }
+        }
+
+        ScenarioMeter.run(name + " random breaks", broken.size(), () -> broken.forEach(storage::remove));
+
+        assertMatches(expected, storage);
+
+        // a different part at the same position of a stored one must not remove it
+
+        final IMultiblockPart<StubController> stored = expected.values().iterator().next();
+
+        storage.remove(MultiblockStubs.part(stored.getWorldPosition()));
+        assertSame(stored, storage.get(stored.getWorldPosition()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("storages")
+    void chunkUnloadReload(final String name, final Supplier<IPartStorage<StubController>> factory) {
+
+        final IPartStorage<StubController> storage = factory.get();
+        final ObjectList<IMultiblockPart<StubController>> parts = cuboid(0, 0, 0, SIZE_X, SIZE_Y, SIZE_Z);
+        final Long2ObjectMap<IMultiblockPart<StubController>> expected = toMap(parts);
+        final ObjectList<IMultiblockPart<StubController>> unloaded = new ObjectArrayList<>();
+        final ObjectList<IMultiblockPart<StubController>> reloaded = new ObjectArrayList<>();
+
+        parts.forEach(storage::addOrReplace);
+
+        // unload every other chunk, the reloaded chunks get new parts (as new tile entities would be created)
+
+        for (final IMultiblockPart<StubController> part : parts) {
+
+            final BlockPos position = part.getWorldPosition();
+
+            if (0 == (((position.getX() >> 4) + (position.getZ() >> 4)) & 1)) {
+
+                final IMultiblockPart<StubController> newPart = MultiblockStubs.part(position);
+
+                unloaded.add(part);
+                reloaded.add(newPart);
+                expected.put(newPart.getWorldPositionHash(), newPart);
+            }
+        }
+
+        ScenarioMeter.run(name + " chunk unload", unloaded.size(), () -> storage.removeAll(unloaded));
+
+        assertEquals(parts.size() - unloaded.size(), storage.size());
+
+        for (final IMultiblockPart<StubController> part : unloaded) {
+            assertFalse(storage.contains(part));
+        }
+
+        ScenarioMeter.run(name + " chunk reload", reloaded.size(), () -> reloaded.forEach(storage::addOrReplace));
+
+        assertMatches(expected, storage);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("storages")
+    void mergeMachines(final String name, final Supplier<IPartStorage<StubController>> factory) {
+
+        final ObjectList<IPartStorage<StubController>> machines = new ObjectArrayList<>(MACHINES);
+        final Long2ObjectMap<IMultiblockPart<StubController>> expected = new Long2ObjectOpenHashMap<>();
+
+        // a row of machines, one next to the other
+
+        for (int i = 0; i < MACHINES; ++i) {
+
+            final IPartStorage<StubController> storage = factory.get();
+            final ObjectList<IMultiblockPart<StubController>> parts = cuboid(i * 8, 0, 0, 8, 16, 16);
+
+            parts.forEach(storage::addOrReplace);
+            expected.putAll(toMap(parts));
+            machines.add(storage);
+        }
+
+        final IPartStorage<StubController> target = machines.get(0);
+
+        ScenarioMeter.run(name + " merge " + MACHINES + " machines", expected.size() - target.size(), () -> {
+            for (int i = 1; i < MACHINES; ++i) {
+                target.addAll(machines.get(i));
+            }
+        });
+
+        assertMatches(expected, target);
+        assertEquals(new CuboidBoundingBox(0, 0, 0, MACHINES * 8 - 1, 15, 15), target.boundingBox());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("storages")
+    void neighborsLookup(final String name, final Supplier<IPartStorage<StubController>> factory) {
+
+        final IPartStorage<StubController> storage = factory.get();
+        final ObjectList<IMultiblockPart<StubController>> parts = cuboid(0, 0, 0, SIZE_X, SIZE_Y, SIZE_Z);
+        final ObjectList<IMultiblockPart<StubController>> found = new ObjectArrayList<>(6);
+        final NeighboringPositions positions = new NeighboringPositions();
+
+        parts.forEach(storage::addOrReplace);
+
+        ScenarioMeter.run(name + " neighbors lookup", parts.size(), () -> {
+            for (final IMultiblockPart<StubController> part : parts) {
+
+                final BlockPos position = part.getWorldPosition();
+
+                positions.setTo(position);
+                found.clear();
+                storage.get(positions, found);
+                assertEquals(expectedNeighbors(position), found.size());
+            }
+        });
+
+        // a position just outside the corner of the cuboid touch one part only
+
+        positions.setTo(-1, 0, 0);
+        assertTrue(storage.contains(positions));
+        positions.setTo(-1, -1, 0);
+        assertFalse(storage.contains(positions));
+    }
+
+    //region internals
+
+    private static ObjectList<IMultiblockPart<StubController>> cuboid(final int minX, final int minY, final int minZ,
+                                                                      final int sizeX, final int sizeY, final int sizeZ) {
+
+        final ObjectList<IMultiblockPart<StubController>> parts = new ObjectArrayList<>(sizeX * sizeY * sizeZ);
+
+        for (int x = 0; x < sizeX; ++x) {
+            for (int y = 0; y < sizeY; ++y) {
+                for (int z = 0; z < sizeZ; ++z) {
+                    parts.add(MultiblockStubs.part(minX + x, minY + y, minZ + z));
+                }
+            }
+        }
+
+        return parts;
+    }
+
+    private static Long2ObjectMap<IMultiblockPart<StubController>> toMap(final ObjectList<IMultiblockPart<StubController>> parts) {
+
+        final Long2ObjectMap<IMultiblockPart<StubController>> map = new Long2ObjectOpenHashMap<>(parts.size());
+
+        for (final IMultiblockPart<StubController> part : parts) {
+            map.put(part.getWorldPositionHash(), part);
+        }
+
+        return map;
+    }
+
+    private static int expectedNeighbors(final BlockPos position) {
+        return neighbors(position.getX(), SIZE_X) + neighbors(position.getY(), SIZE_Y) + neighbors(position.getZ(), SIZE_Z);
+    }
+
+    private static int neighbors(final int coordinate, final int size) {
+        return (coordinate > 0 ? 1 : 0) + (coordinate < size - 1 ? 1 : 0);
+    }
+
+    private static void assertMatches(final Long2ObjectMap<IMultiblockPart<StubController>> expected,
+                                      final IPartStorage<StubController> storage) {
+
+        assertEquals(expected.size(), storage.size());
+
+        long firstHash = Long.MAX_VALUE;
+
+        for (final Long2ObjectMap.Entry<IMultiblockPart<StubController>> entry : expected.long2ObjectEntrySet()) {
+
+            assertSame(entry.getValue(), storage.get(entry.getLongKey()));
+            assertTrue(storage.contains(entry.getValue()));
+            firstHash = Math.min(firstHash, entry.getLongKey());
+        }
+
+        for (final IMultiblockPart<StubController> part : storage) {
+            assertSame(expected.get(part.getWorldPositionHash()), part);
+        }
+
+        assertSame(expected.get(firstHash), storage.getFirst());
+    }
+
+    private static final int SIZE_X = 64;
+    private static final int SIZE_Y = 32;
+    private static final int SIZE_Z = 64;
+    private static final int MACHINES = 16;
+    private static final long SEED = 0x2E40C0DEL;
+
+    //endregion
+}
@@ -0,0 +1,506 @@
+/*
+ *
+ * MultiblockStubs.java
+ *
+ * This file is part of Zero CORE 2 by ZeroNoRyouki, a Minecraft mod.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *
+ * DO NOT REMOVE OR EDIT THIS HEADER
+ *
+ */
+
+package it.zerono.mods.zerocore.lib.multiblock;
+
+import it.zerono.mods.zerocore.lib.data.nbt.ISyncableEntity;
+import it.zerono.mods.zerocore.lib.multiblock.storage.IPartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.storage.PartStorage;
+import it.zerono.mods.zerocore.lib.multiblock.validation.ValidationError;
+import it.zerono.mods.zerocore.lib.world.NeighboringPositions;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for the multiblock types that would otherwise need a running game, shared by the tests and the benchmarks.
+ *
+ * The parts only know their position, their controller and their visited and invalid flags. The controllers only
+ * keep track of their parts. Nothing is bound to a World: the paths of the multiblock library that need one
+ * (the controllers logic and the validation of the blocks) are not covered by the stubs
+ */
+public final class MultiblockStubs {
+
+    /**
+     * Create a part that only knows its position
+     *
+     * @param position the position of the part
+     * @return the new part
+     */
+    public static StubPart part(final BlockPos position) {
+        return new StubPart(position.immutable());
+    }
+
+    /**
+     * Create a part that only knows its position
+     *
+     * @param x the X coordinate of the part
+     * @param y the Y coordinate of the part
+     * @param z the Z coordinate of the part
+     * @return the new part
+     */
+    public static StubPart part(final int x, final int y, final int z) {
+        return new StubPart(new BlockPos(x, y, z));
+    }
+
+    /**
+     * Create a controller with no parts
+     *
+     * @param name the name returned by the toString() method of the controller
+     * @return the new controller
+     */
+    public static StubController controller(final String name) {
+        return new StubController(name);
+    }
+
+    /**
+     * Change the value returned by {@link IMultiblockPart#isPartInvalid()} for a part created by this class
+     *
+     * @param part the part
+     * @param invalid the new value
+     */
+    public static void setPartInvalid(final IMultiblockPart<StubController> part, final boolean invalid) {
+        ((StubPart)part)._invalid = invalid;
+    }
+
+    /**
+     * A part that only knows its position and the controller it is attached to
+     */
+    public static final class StubPart
+            implements IMultiblockPart<StubController> {
+
+        //region IMultiblockPart
+
+        @Override
+        public boolean isConnected() {
+            return null != this._controller;
+        }
+
+        @Override
+        public boolean isMachineAssembled() {
+            return false;
+        }
+
+        @Override
+        public boolean isMachineDisassembled() {
+            return true;
+        }
+
+        @Override
+        public boolean isMachinePaused() {
+            return false;
+        }
+
+        @Override
+        public Optional<StubController> getMultiblockController() {
+            return Optional.ofNullable(this._controller);
+        }
+
+        @Override
+        public Optional<World> getPartWorld() {
+            return Optional.empty();
+        }
+
+        @Override
+        public BlockPos getWorldPosition() {
+            return this._position;
+        }
+
+        @Override
+        public long getWorldPositionHash() {
+            return this._positionHash;
+        }
+
+        @Override
+        public boolean isPartInvalid() {
+            return this._invalid;
+        }
+
+        @Override
+        public void onAttached(final StubController newController) {
+            this._controller = newController;
+        }
+
+        @Override
+        public void onDetached(final StubController multiblockController) {
+            this._controller = null;
+        }
+
+        @Override
+        public void onOrphaned(final StubController oldController, final int oldControllerSize,
+                               final int newControllerSize) {
+        }
+
+        @Override
+        public StubController createController() {
+            return new StubController(this._position.toString());
+        }
+
+        @Override
+        public Class<StubController> getControllerType() {
+            return StubController.class;
+        }
+
+        @Override
+        public void onAssimilated(final StubController newController) {
+            this._controller = newController;
+        }
+
+        @Override
+        public void setVisited() {
+            this._visited = true;
+        }
+
+        @Override
+        public void setUnvisited() {
+            this._visited = false;
+        }
+
+        @Override
+        public boolean isVisited() {
+            return this._visited;
+        }
+
+        @Override
+        public void becomeMultiblockSaveDelegate() {
+        }
+
+        @Override
+        public void forfeitMultiblockSaveDelegate() {
+        }
+
+        @Override
+        public boolean isMultiblockSaveDelegate() {
+            return false;
+        }
+
+        @Override
+        public List<IMultiblockPart<StubController>> getNeighboringParts() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void onPreMachineAssembled(final StubController multiblockController) {
+        }
+
+        @Override
+        public void onPostMachineAssembled(final StubController multiblockController) {
+        }
+
+        @Override
+        public void onPreMachineBroken() {
+        }
+
+        @Override
+        public void onPostMachineBroken() {
+        }
+
+        @Override
+        public void onMachineActivated() {
+        }
+
+        @Override
+        public void onMachineDeactivated() {
+        }
+
+        @Override
+        public Set<StubController> attachToNeighbors(final Function<IMultiblockPart<StubController>, Set<StubController>> controllersLookup) {
+            return controllersLookup.apply(this);
+        }
+
+        @Override
+        public void assertDetached() {
+        }
+
+        @Override
+        public boolean hasMultiblockSaveData() {
+            return false;
+        }
+
+        @Override
+        public Optional<CompoundNBT> getMultiblockSaveData() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void onMultiblockDataAssimilated() {
+        }
+
+        @Override
+        public void listenForControllerDataUpdates() {
+        }
+
+        //endregion
+        //region Object
+
+        @Override
+        public String toString() {
+            return this._position.toString();
+        }
+
+        //endregion
+        //region internals
+
+        private StubPart(final BlockPos position) {
+
+            this._position = position;
+            this._positionHash = position.asLong();
+        }
+
+        private final BlockPos _position;
+        private final long _positionHash;
+        @Nullable
+        private StubController _controller;
+        private boolean _visited;
+        private boolean _invalid;
+
+        //endregion
+    }
+
+    /**
+     * A controller that only keeps track of its parts. It never assemble and it is never updated
+     */
+    public static final class StubController
+            implements IMultiblockController<StubController> {
+
+        //region IMultiblockController
+
+        @Override
+        public boolean isEmpty() {
+            return this._parts.isEmpty();
+        }
+
+        @Override
+        public int getPartsCount() {
+            return this._parts.size();
+        }
+
+        @Override
+        public boolean containsPart(final IMultiblockPart<StubController> part) {
+            return this._parts.contains(part);
+        }
+
+        @Override
+        public boolean containsPartsAt(final NeighboringPositions positions) {
+            return this._parts.contains(positions);
+        }
+
+        @Override
+        public boolean containsPartsAt(final BlockPos[] positions) {
+            return this._parts.contains(positions);
+        }
+
+        @Override
+        public void attachPart(final IMultiblockPart<StubController> part) {
+
+            this._parts.addOrReplace(part);
+            part.onAttached(this);
+        }
+
+        @Override
+        public void detachPart(final IMultiblockPart<StubController> part, final boolean chunkUnloading) {
+
+            this._parts.remove(part);
+            part.onDetached(this);
+        }
+
+        @Override
+        public IPartStorage<StubController> detachAll() {
+
+            final IPartStorage<StubController> detached = this._parts;
+
+            this._parts = new PartStorage<>();
+            detached.forEach(part -> part.onDetached(this));
+            return detached;
+        }
+
+        @Override
+        public void assimilateController(final StubController other) {
+
+            other._parts.forEach(part -> part.onAssimilated(this));
+            this._parts.addAll(other._parts);
+            other._parts.clear();
+        }
+
+        @Override
+        public boolean shouldConsumeController(final StubController other) {
+            return this.compareTo(other) < 0;
+        }
+
+        @Override
+        public IPartStorage<StubController> checkForDisconnections() {
+            return new PartStorage<>();
+        }
+
+        @Override
+        public Runnable listenForDataUpdate(final Runnable handler) {
+            return handler;
+        }
+
+        @Override
+        public void unlistenForDataUpdate(final Runnable handler) {
+        }
+
+        @Override
+        public void syncFromSaveDelegate(final CompoundNBT data, final ISyncableEntity.SyncReason syncReason) {
+        }
+
+        @Override
+        public void checkIfMachineIsWhole() {
+        }
+
+        @Override
+        public boolean isAssembled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDisassembled() {
+            return true;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return false;
+        }
+
+        @Override
+        public void updateMultiblockEntity() {
+        }
+
+        @Override
+        public void recalculateCoords() {
+        }
+
+        @Override
+        public void forceStructureUpdate(final World world) {
+        }
+
+        //endregion
+        //region IMultiblockMachine
+
+        @Override
+        public World getWorld() {
+            throw new UnsupportedOperationException("the stub controllers are not bound to a world");
+        }
+
+        @Override
+        public Optional<BlockPos> getReferenceCoord() {
+            return Optional.ofNullable(this._parts.getFirst()).map(IMultiblockPart::getWorldPosition);
+        }
+
+        @Override
+        public Optional<BlockPos> getMinimumCoord() {
+            return this.getReferenceCoord();
+        }
+
+        @Override
+        public <T> T mapBoundingBoxCoordinates(final BiFunction<BlockPos, BlockPos, T> minMaxCoordMapper,
+                                               final T defaultValue) {
+            return defaultValue;
+        }
+
+        @Override
+        public <T> T mapBoundingBoxCoordinates(final BiFunction<BlockPos, BlockPos, T> minMaxCoordMapper,
+                                               final T defaultValue, final Function<BlockPos, BlockPos> minRemapper,
+                                               final Function<BlockPos, BlockPos> maxRemapper) {
+            return defaultValue;
+        }
+
+        @Override
+        public void forBoundingBoxCoordinates(final BiConsumer<BlockPos, BlockPos> minMaxCoordConsumer) {
+        }
+
+        @Override
+        public void forBoundingBoxCoordinates(final BiConsumer<BlockPos, BlockPos> minMaxCoordConsumer,
+                                              final Function<BlockPos, BlockPos> minRemapper,
+                                              final Function<BlockPos, BlockPos> maxRemapper) {
+        }
+
+        //endregion
+        //region IMultiblockValidator
+
+        @Override
+        public Optional<ValidationError> getLastError() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void setLastError(final ValidationError error) {
+        }
+
+        @Override
+        public void setLastError(final String messageFormatStringResourceKey, final Object... messageParameters) {
+        }
+
+        @Override
+        public void setLastError(final BlockPos position, final String messageFormatStringResourceKey,
+                                 final Object... messageParameters) {
+        }
+
+        //endregion
+        //region Comparable
+
+        @Override
+        public int compareTo(final StubController other) {
+            return Long.compare(this._id, other._id);
+        }
+
+        //endregion
+        //region Object
+
+        @Override
+        public String toString() {
+            return this._name;
+        }
+
+        //endregion
+        //region internals
+
+        private StubController(final String name) {
+
+            this._name = name;
+            this._id = s_nextId++;
+            this._parts = new PartStorage<>();
+        }
+
+        private static long s_nextId = 0;
+
+        private final String _name;
+        private final long _id;
+        private IPartStorage<StubController> _parts;
+
+        //endregion
+    }
+
+    //region internals
+
+    private MultiblockStubs() {
+    }
+
+    //endregion
+}